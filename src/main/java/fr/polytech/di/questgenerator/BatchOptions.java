@@ -0,0 +1,157 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.Motivations;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Options used when generating quests by batch.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class BatchOptions
+{
+	private int parallelism;
+	private Motivations motivation;
+	private long seed;
+	private GeneratorContext context;
+
+	/**
+	 * Constructor.
+	 * Quests will be generated using every available processor, with a random motivation, a random seed and the default context.
+	 */
+	public BatchOptions()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism The number of threads used to generate the quests.
+	 */
+	public BatchOptions(int parallelism)
+	{
+		this(parallelism, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism The number of threads used to generate the quests.
+	 * @param motivation The motivation of the generated quests, null to pick a random one for each quest.
+	 */
+	public BatchOptions(int parallelism, Motivations motivation)
+	{
+		this(parallelism, motivation, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism The number of threads used to generate the quests.
+	 * @param motivation The motivation of the generated quests, null to pick a random one for each quest.
+	 * @param seed The seed of the batch. The same seed will always give the same quests for the same configuration.
+	 */
+	public BatchOptions(int parallelism, Motivations motivation, long seed)
+	{
+		this(parallelism, motivation, seed, new GeneratorContext());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism The number of threads used to generate the quests.
+	 * @param motivation The motivation of the generated quests, null to pick a random one for each quest.
+	 * @param seed The seed of the batch. The same seed will always give the same quests for the same configuration.
+	 * @param context The context used to configure the generation of the quests. Its source of randomness isn't used, each quest getting its own.
+	 */
+	public BatchOptions(int parallelism, Motivations motivation, long seed, GeneratorContext context)
+	{
+		this.setParallelism(parallelism);
+		this.setMotivation(motivation);
+		this.setSeed(seed);
+		this.setContext(context);
+	}
+
+	/**
+	 * Used to get the number of threads used to generate the quests.
+	 *
+	 * @return The parallelism.
+	 */
+	public int getParallelism()
+	{
+		return this.parallelism;
+	}
+
+	/**
+	 * Used to set the number of threads used to generate the quests.
+	 *
+	 * @param parallelism The parallelism to set.
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Used to get the motivation of the generated quests.
+	 *
+	 * @return The motivation, null if a random one is picked for each quest.
+	 */
+	public Motivations getMotivation()
+	{
+		return this.motivation;
+	}
+
+	/**
+	 * Used to set the motivation of the generated quests.
+	 *
+	 * @param motivation The motivation to set, null to pick a random one for each quest.
+	 */
+	public void setMotivation(Motivations motivation)
+	{
+		this.motivation = motivation;
+	}
+
+	/**
+	 * Used to get the seed of the batch.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return this.seed;
+	}
+
+	/**
+	 * Used to set the seed of the batch.
+	 *
+	 * @param seed The seed to set.
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Used to get the context used to configure the generation of the quests.
+	 *
+	 * @return The context.
+	 */
+	public GeneratorContext getContext()
+	{
+		return this.context;
+	}
+
+	/**
+	 * Used to set the context used to configure the generation of the quests.
+	 *
+	 * @param context The context to set.
+	 */
+	public void setContext(GeneratorContext context)
+	{
+		this.context = context;
+	}
+}
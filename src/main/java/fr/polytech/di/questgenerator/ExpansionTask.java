@@ -0,0 +1,56 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.Quest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the subtree of an action, forking a task for each action of its subquest while their remaining depth is at least the parallel threshold of the context.
+ * Under the threshold the subtree is generated breadth first in the current task.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+class ExpansionTask extends RecursiveAction
+{
+	private static final long serialVersionUID = 1L;
+	private final Action action;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param action The action to expand.
+	 */
+	ExpansionTask(Action action)
+	{
+		this.action = action;
+	}
+
+	@Override
+	protected void compute()
+	{
+		Optional<Quest> subquest = this.action.getSubquest();
+		if(!subquest.isPresent())
+			return;
+		GeneratorContext context = subquest.get().getContext();
+		if(context.getMaxDepth() - this.action.getDepth() >= context.getParallelThreshold())
+		{
+			ArrayList<ExpansionTask> tasks = new ArrayList<>();
+			for(Action child : subquest.get().getActions())
+				tasks.add(new ExpansionTask(child));
+			invokeAll(tasks);
+		}
+		else
+		{
+			ArrayDeque<Action> queue = new ArrayDeque<>(subquest.get().getActions());
+			while(!queue.isEmpty())
+			{
+				Optional<Quest> child = queue.poll().getSubquest();
+				if(child.isPresent())
+					queue.addAll(child.get().getActions());
+			}
+		}
+	}
+}
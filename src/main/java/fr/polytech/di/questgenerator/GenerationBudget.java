@@ -0,0 +1,78 @@
+package fr.polytech.di.questgenerator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the cost of the generation of one quest. Once the budget is exhausted, the actions not expanded yet become leaves.
+ * A budget is shared by all the contexts split from the one of the quest, it is thread safe.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class GenerationBudget
+{
+	/**
+	 * Value of the node limit when there isn't any.
+	 */
+	public static final int UNLIMITED_NODES = Integer.MAX_VALUE;
+	/**
+	 * Value of the timeout when there isn't any.
+	 */
+	public static final long NO_TIMEOUT = Long.MAX_VALUE;
+	private final int maxNodes;
+	private final long deadline;
+	private final boolean timed;
+	private final AtomicInteger nodes;
+
+	/**
+	 * Constructor.
+	 * The deadline starts now.
+	 *
+	 * @param maxNodes The max number of actions of the quest, {@link #UNLIMITED_NODES} for none.
+	 * @param timeout The time in nanoseconds given to the generation, {@link #NO_TIMEOUT} for none.
+	 */
+	public GenerationBudget(int maxNodes, long timeout)
+	{
+		this.maxNodes = maxNodes;
+		this.timed = timeout != NO_TIMEOUT;
+		this.deadline = this.timed ? System.nanoTime() + timeout : 0;
+		this.nodes = new AtomicInteger();
+	}
+
+	/**
+	 * Count a new action.
+	 */
+	public void consume()
+	{
+		this.nodes.incrementAndGet();
+	}
+
+	/**
+	 * Used to know if the budget has been exhausted, either by the number of actions or by the deadline.
+	 *
+	 * @return True if exhausted, false if not.
+	 */
+	public boolean isExhausted()
+	{
+		return this.nodes.get() >= this.maxNodes || (this.timed && System.nanoTime() - this.deadline >= 0);
+	}
+
+	/**
+	 * Used to get the number of actions created.
+	 *
+	 * @return The number of actions.
+	 */
+	public int getNodes()
+	{
+		return this.nodes.get();
+	}
+
+	/**
+	 * Used to get the max number of actions.
+	 *
+	 * @return The max number of actions.
+	 */
+	public int getMaxNodes()
+	{
+		return this.maxNodes;
+	}
+}
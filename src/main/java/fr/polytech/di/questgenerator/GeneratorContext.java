@@ -0,0 +1,270 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.ExpansionMode;
+import fr.polytech.di.questgenerator.objects.DataHandler;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of a quest generation: depth limit, expansion mode, parallel threshold, generation budget, rendering flags, source of randomness and catalog of objectives.
+ * A context is immutable, the with* methods return modified copies. Each copy made by a with* method starts a new budget from its own limits, whatever the budget already spent, while the contexts split from the one of a quest with {@link #split()} share its budget. The copies share the source of randomness of their context, only {@link #withSeed(long)} and {@link #split()} give a new one, so building a copy doesn't consume random values. As the source of randomness isn't thread safe, a context and its copies must only be used by one generation at a time, use {@link #withSeed(long)} or {@link #split()} to get one for another generation.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class GeneratorContext
+{
+	private static final int DEFAULT_MAX_DEPTH = 3;
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 2;
+	private final int maxDepth;
+	private final ExpansionMode expansionMode;
+	private final int maxNodes;
+	private final long timeout;
+	private final int parallelThreshold;
+	private final boolean debug;
+	private final XMLStringObjectiveCatalog catalog;
+	private final SplittableRandom random;
+	private final GenerationBudget budget;
+
+	/**
+	 * Constructor.
+	 * Uses the default depth limit, an eager expansion, no budget, no debug, the current catalog of the DataHandler and a random seed.
+	 */
+	public GeneratorContext()
+	{
+		this(DEFAULT_MAX_DEPTH, ExpansionMode.EAGER, false, null, new SplittableRandom());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxDepth The max depth of the quests.
+	 * @param expansionMode The way the subquests are generated.
+	 * @param debug The debug status, used when displaying the quests.
+	 * @param catalog The catalog to pick the objectives from, null to use the current catalog of the DataHandler.
+	 * @param random The source of randomness.
+	 */
+	public GeneratorContext(int maxDepth, ExpansionMode expansionMode, boolean debug, XMLStringObjectiveCatalog catalog, SplittableRandom random)
+	{
+		this(maxDepth, expansionMode, GenerationBudget.UNLIMITED_NODES, GenerationBudget.NO_TIMEOUT, DEFAULT_PARALLEL_THRESHOLD, debug, catalog, random, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxDepth The max depth of the quests.
+	 * @param expansionMode The way the subquests are generated.
+	 * @param maxNodes The max number of actions of a quest.
+	 * @param timeout The time in nanoseconds given to the generation of a quest.
+	 * @param parallelThreshold The min remaining depth of an action for the subtrees of its subquest to be generated in parallel.
+	 * @param debug The debug status, used when displaying the quests.
+	 * @param catalog The catalog to pick the objectives from.
+	 * @param random The source of randomness.
+	 * @param budget The budget of the quest being generated, null to start a new one.
+	 */
+	private GeneratorContext(int maxDepth, ExpansionMode expansionMode, int maxNodes, long timeout, int parallelThreshold, boolean debug, XMLStringObjectiveCatalog catalog, SplittableRandom random, GenerationBudget budget)
+	{
+		this.maxDepth = maxDepth;
+		this.expansionMode = expansionMode;
+		this.maxNodes = maxNodes;
+		this.timeout = timeout;
+		this.parallelThreshold = parallelThreshold;
+		this.debug = debug;
+		this.catalog = catalog;
+		this.random = random;
+		this.budget = budget == null ? this.newBudget() : budget;
+	}
+
+	/**
+	 * Used to get a copy of this context with another max depth.
+	 *
+	 * @param maxDepth The max depth to set.
+	 * @return The new context.
+	 */
+	public GeneratorContext withMaxDepth(int maxDepth)
+	{
+		return new GeneratorContext(maxDepth, this.expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another expansion mode.
+	 *
+	 * @param expansionMode The expansion mode to set.
+	 * @return The new context.
+	 */
+	public GeneratorContext withExpansionMode(ExpansionMode expansionMode)
+	{
+		return new GeneratorContext(this.maxDepth, expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another limit on the number of actions of a quest. Once it is reached, the actions not expanded yet become leaves.
+	 *
+	 * @param maxNodes The max number of actions, {@link GenerationBudget#UNLIMITED_NODES} for none.
+	 * @return The new context.
+	 */
+	public GeneratorContext withMaxNodes(int maxNodes)
+	{
+		if(maxNodes < 1)
+			throw new IllegalArgumentException("Max nodes must be at least 1, got " + maxNodes);
+		return new GeneratorContext(this.maxDepth, this.expansionMode, maxNodes, this.timeout, this.parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another time limit on the generation of a quest. Once it is reached, the actions not expanded yet become leaves.
+	 * It isn't used with a lazy expansion, as the subquests are then generated long after the quest.
+	 *
+	 * @param timeout The time given to the generation.
+	 * @param unit The unit of the timeout.
+	 * @return The new context.
+	 */
+	public GeneratorContext withTimeout(long timeout, TimeUnit unit)
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, unit.toNanos(timeout), this.parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context without time limit on the generation of a quest.
+	 *
+	 * @return The new context.
+	 */
+	public GeneratorContext withoutTimeout()
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, GenerationBudget.NO_TIMEOUT, this.parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another parallel threshold, used by the parallel expansion.
+	 *
+	 * @param parallelThreshold The min remaining depth (max depth minus depth) of an action for the subtrees of its subquest to be generated in parallel.
+	 * @return The new context.
+	 */
+	public GeneratorContext withParallelThreshold(int parallelThreshold)
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, this.timeout, parallelThreshold, this.debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another debug status.
+	 *
+	 * @param debug The status to set.
+	 * @return The new context.
+	 */
+	public GeneratorContext withDebug(boolean debug)
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, debug, this.catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context with another catalog.
+	 *
+	 * @param catalog The catalog to set, null to use the current catalog of the DataHandler.
+	 * @return The new context.
+	 */
+	public GeneratorContext withCatalog(XMLStringObjectiveCatalog catalog)
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, this.debug, catalog, this.random, null);
+	}
+
+	/**
+	 * Used to get a copy of this context using a source of randomness created from the given seed.
+	 * This starts the generation of a quest: if this context follows the current catalog of the DataHandler, the new one is bound to the catalog current at this time, so that a reload doesn't change the catalog in the middle of a generation.
+	 *
+	 * @param seed The seed.
+	 * @return The new context.
+	 */
+	public GeneratorContext withSeed(long seed)
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, this.debug, this.getCatalog(), new SplittableRandom(seed), null);
+	}
+
+	/**
+	 * Used to get a copy of this context with a source of randomness split from this one.
+	 *
+	 * @return The new context.
+	 */
+	public GeneratorContext split()
+	{
+		return new GeneratorContext(this.maxDepth, this.expansionMode, this.maxNodes, this.timeout, this.parallelThreshold, this.debug, this.catalog, this.random.split(), this.budget);
+	}
+
+	/**
+	 * Used to get the max depth.
+	 *
+	 * @return The max depth.
+	 */
+	public int getMaxDepth()
+	{
+		return this.maxDepth;
+	}
+
+	/**
+	 * Used to get the expansion mode.
+	 *
+	 * @return The expansion mode.
+	 */
+	public ExpansionMode getExpansionMode()
+	{
+		return this.expansionMode;
+	}
+
+	/**
+	 * Used to get the parallel threshold.
+	 *
+	 * @return The min remaining depth of an action for the subtrees of its subquest to be generated in parallel.
+	 */
+	public int getParallelThreshold()
+	{
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Used to get the budget of the quest being generated.
+	 *
+	 * @return The budget.
+	 */
+	public GenerationBudget getBudget()
+	{
+		return this.budget;
+	}
+
+	/**
+	 * Used to get the debug status.
+	 *
+	 * @return The debug status.
+	 */
+	public boolean isDebug()
+	{
+		return this.debug;
+	}
+
+	/**
+	 * Used to get the catalog of objectives.
+	 *
+	 * @return The catalog, the current one of the DataHandler if none has been set.
+	 */
+	public XMLStringObjectiveCatalog getCatalog()
+	{
+		return this.catalog == null ? DataHandler.getCatalog() : this.catalog;
+	}
+
+	/**
+	 * Used to get the source of randomness.
+	 *
+	 * @return The random.
+	 */
+	public SplittableRandom getRandom()
+	{
+		return this.random;
+	}
+
+	/**
+	 * Create a new budget from the limits of this context.
+	 *
+	 * @return The budget.
+	 */
+	private GenerationBudget newBudget()
+	{
+		return new GenerationBudget(this.maxNodes, this.expansionMode == ExpansionMode.LAZY ? GenerationBudget.NO_TIMEOUT : this.timeout);
+	}
+}
@@ -1,13 +1,25 @@
 package fr.polytech.di.questgenerator;
 
+import fr.polytech.di.questgenerator.enums.ExpansionMode;
 import fr.polytech.di.questgenerator.enums.Motivations;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.enums.Strategies;
 import fr.polytech.di.questgenerator.objects.Action;
 import fr.polytech.di.questgenerator.objects.Quest;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Generates quests.
@@ -16,63 +28,80 @@ import java.util.Optional;
  */
 public class QuestGenerator
 {
-	private static boolean debug = false;
-	private static int maxDepth = 3;
+	/**
+	 * Start a quest randomly.
+	 *
+	 * @return A Quest.
+	 */
+	public static Quest createNewRandomQuest()
+	{
+		return createNewRandomQuest(new GeneratorContext());
+	}
 
 	/**
-	 * Used to get the max depth.
+	 * Start a quest randomly.
 	 *
-	 * @return The max depth.
+	 * @param context The context of the generation.
+	 * @return A Quest.
 	 */
-	public static int getMaxDepth()
+	public static Quest createNewRandomQuest(GeneratorContext context)
 	{
-		return maxDepth;
+		return createNewRandomQuest(context, newSeed());
 	}
 
 	/**
-	 * Used to set the max depth.
+	 * Start a quest randomly. The same seed will always give the same quest for the same configuration.
 	 *
-	 * @param maxDepth The max depth to set.
+	 * @param seed The seed of the quest.
+	 * @return A Quest.
 	 */
-	public static void setMaxDepth(int maxDepth)
+	public static Quest createNewRandomQuest(long seed)
 	{
-		QuestGenerator.maxDepth = maxDepth;
+		return createNewRandomQuest(new GeneratorContext(), seed);
 	}
 
 	/**
-	 * Start a quest randomly.
+	 * Start a quest randomly. The same seed will always give the same quest for the same configuration.
 	 *
+	 * @param context The context of the generation.
+	 * @param seed The seed of the quest.
 	 * @return A Quest.
 	 */
-	public static Quest createNewRandomQuest()
+	public static Quest createNewRandomQuest(GeneratorContext context, long seed)
 	{
-		return Strategies.getRandom().createQuest();
+		GeneratorContext questContext = context.withSeed(seed);
+		Quest quest = Strategies.getRandom(questContext.getRandom()).createQuest(questContext);
+		quest.setSeed(seed);
+		expand(questContext, quest);
+		return quest;
 	}
 
 	/**
 	 * Start a quest randomly.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent action, null if none.
 	 * @param depth The depth of the quest.
 	 * @param objectives The objectives for the quest.
 	 * @return A Quest.
 	 */
-	public static Quest createNewRandomQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public static Quest createNewRandomQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		return Strategies.getRandom().createQuest(parent, depth, objectives);
+		return Strategies.getRandom(context.getRandom()).createQuest(context, parent, depth, objectives);
 	}
 
 	/**
 	 * Start a subquest randomly.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent action, null if none.
 	 * @param depth The depth of the quest.
 	 * @param objectives The objectives for the quest.
 	 * @return A Quest.
 	 */
-	public static Quest createRandomSubquest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public static Quest createRandomSubquest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		return Strategies.getRandomSubquest().createQuest(parent, depth, objectives);
+		return Strategies.getRandomSubquest(context.getRandom()).createQuest(context, parent, depth, objectives);
 	}
 
 	/**
@@ -83,40 +112,195 @@ public class QuestGenerator
 	 */
 	public static Quest createByMotivation(Motivations motivation)
 	{
-		return Strategies.getByMotivation(motivation).createQuest();
+		return createByMotivation(new GeneratorContext(), motivation);
+	}
+
+	/**
+	 * Create a quest randomly that is from the given Motivation.
+	 *
+	 * @param context The context of the generation.
+	 * @param motivation The Motivation of the Strategy that will be picked.
+	 * @return A Quest.
+	 */
+	public static Quest createByMotivation(GeneratorContext context, Motivations motivation)
+	{
+		return createByMotivation(context, motivation, newSeed());
+	}
+
+	/**
+	 * Create a quest randomly that is from the given Motivation. The same seed will always give the same quest for the same configuration.
+	 *
+	 * @param motivation The Motivation of the Strategy that will be picked.
+	 * @param seed The seed of the quest.
+	 * @return A Quest.
+	 */
+	public static Quest createByMotivation(Motivations motivation, long seed)
+	{
+		return createByMotivation(new GeneratorContext(), motivation, seed);
+	}
+
+	/**
+	 * Create a quest randomly that is from the given Motivation. The same seed will always give the same quest for the same configuration.
+	 *
+	 * @param context The context of the generation.
+	 * @param motivation The Motivation of the Strategy that will be picked.
+	 * @param seed The seed of the quest.
+	 * @return A Quest.
+	 */
+	public static Quest createByMotivation(GeneratorContext context, Motivations motivation, long seed)
+	{
+		GeneratorContext questContext = context.withSeed(seed);
+		Quest quest = Strategies.getByMotivation(questContext.getRandom(), motivation).createQuest(questContext);
+		quest.setSeed(seed);
+		expand(questContext, quest);
+		return quest;
 	}
 
 	/**
 	 * Create a quest randomly that is from the given Motivation.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent action, null if none.
 	 * @param motivation The Motivation of the Strategy that will be picked.
 	 * @param depth The depth of the quest.
 	 * @param objectives The objectives for the quest.
 	 * @return A Quest.
 	 */
-	public static Quest createByMotivation(Action parent, Motivations motivation, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public static Quest createByMotivation(GeneratorContext context, Action parent, Motivations motivation, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	{
+		return Strategies.getByMotivation(context.getRandom(), motivation).createQuest(context, parent, depth, objectives);
+	}
+
+	/**
+	 * Generate all the subquests not generated yet of a quest, breadth first and without recursion.
+	 *
+	 * @param quest The quest to expand.
+	 * @return The quest.
+	 */
+	public static Quest expand(Quest quest)
+	{
+		ArrayDeque<Action> queue = new ArrayDeque<>(quest.getActions());
+		while(!queue.isEmpty())
+		{
+			Optional<Quest> subquest = queue.poll().getSubquest();
+			if(subquest.isPresent())
+				queue.addAll(subquest.get().getActions());
+		}
+		return quest;
+	}
+
+	/**
+	 * Generate all the subquests not generated yet of a quest, in parallel using fork/join tasks. When called from a ForkJoinPool the tasks run in it, else in the common pool.
+	 * As each action has its own source of randomness and only blacklists the objectives of its ancestors, the result is the same as with {@link #expand(Quest)}, unless the budget of the generation gets exhausted.
+	 *
+	 * @param quest The quest to expand.
+	 * @return The quest.
+	 */
+	public static Quest expandParallel(Quest quest)
+	{
+		ArrayList<ExpansionTask> tasks = new ArrayList<>();
+		for(Action action : quest.getActions())
+			tasks.add(new ExpansionTask(action));
+		if(ForkJoinTask.inForkJoinPool())
+			ForkJoinTask.invokeAll(tasks);
+		else
+			ForkJoinPool.commonPool().invoke(new RecursiveAction()
+			{
+				@Override
+				protected void compute()
+				{
+					invokeAll(tasks);
+				}
+			});
+		return quest;
+	}
+
+	/**
+	 * Expand a quest just generated according to the expansion mode of its context.
+	 *
+	 * @param context The context of the quest.
+	 * @param quest The quest.
+	 */
+	private static void expand(GeneratorContext context, Quest quest)
+	{
+		if(context.getExpansionMode() == ExpansionMode.ITERATIVE)
+			expand(quest);
+		else if(context.getExpansionMode() == ExpansionMode.PARALLEL)
+			expandParallel(quest);
+	}
+
+	/**
+	 * Generate many quests in parallel. The quest at the index i is built from the seed {@link #getBatchQuestSeed(long, int)}, so the result doesn't depend on the parallelism.
+	 *
+	 * @param count The number of quests to generate.
+	 * @param options The options of the batch.
+	 * @return The generated quests.
+	 */
+	public static List<Quest> generateBatch(int count, BatchOptions options)
+	{
+		ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+		try
+		{
+			return pool.submit(() -> IntStream.range(0, count).parallel().mapToObj(i -> createBatchQuest(options, i)).collect(Collectors.toList())).join();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generate many quests in parallel and send them to a sink as soon as they are generated. The quest at the index i is built from the seed {@link #getBatchQuestSeed(long, int)}, available through {@link Quest#getSeed()}.
+	 *
+	 * @param count The number of quests to generate.
+	 * @param options The options of the batch.
+	 * @param sink The consumer receiving the quests. It will be called concurrently from the generating threads, so it must be thread safe.
+	 */
+	public static void generateBatch(int count, BatchOptions options, Consumer<Quest> sink)
+	{
+		ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+		try
+		{
+			pool.submit(() -> IntStream.range(0, count).parallel().forEach(i -> sink.accept(createBatchQuest(options, i)))).join();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Create a quest for a batch.
+	 *
+	 * @param options The options of the batch.
+	 * @param index The index of the quest in the batch.
+	 * @return A Quest.
+	 */
+	private static Quest createBatchQuest(BatchOptions options, int index)
 	{
-		return Strategies.getByMotivation(motivation).createQuest(parent, depth, objectives);
+		long seed = getBatchQuestSeed(options.getSeed(), index);
+		return options.getMotivation() == null ? createNewRandomQuest(options.getContext(), seed) : createByMotivation(options.getContext(), options.getMotivation(), seed);
 	}
 
 	/**
-	 * Used to get the debug status.
+	 * Used to get the seed of a quest of a batch.
 	 *
-	 * @return The debug status.
+	 * @param batchSeed The seed of the batch.
+	 * @param index The index of the quest in the batch.
+	 * @return The seed of the quest.
 	 */
-	public static boolean getDebug()
+	public static long getBatchQuestSeed(long batchSeed, int index)
 	{
-		return debug;
+		return new SplittableRandom(batchSeed + index * 0x9E3779B97F4A7C15L).nextLong();
 	}
 
 	/**
-	 * Used to set the debug status.
+	 * Used to get a new random seed.
 	 *
-	 * @param debug The status to set.
+	 * @return A seed.
 	 */
-	public static void setDebug(boolean debug)
+	private static long newSeed()
 	{
-		QuestGenerator.debug = debug;
+		return ThreadLocalRandom.current().nextLong();
 	}
 }
@@ -0,0 +1,294 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.Motivations;
+import fr.polytech.di.questgenerator.objects.Quest;
+import java.util.EnumMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps ready to use quests for each motivation so they can be handed without waiting for their generation.
+ * When the number of quests of a motivation goes under the low watermark, a background worker generates new ones until the high watermark is reached.
+ * If no quest is available when one is asked, it is generated in the calling thread.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestPool implements AutoCloseable
+{
+	private final GeneratorContext context;
+	private final int lowWatermark;
+	private final int highWatermark;
+	private final ExecutorService workers;
+	private final EnumMap<Motivations, Reserve> reserves;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder refills;
+	private final LongAdder refillLag;
+	private final AtomicLong maxRefillLag;
+	private final ThreadLocal<SplittableRandom> randoms;
+
+	/**
+	 * Constructor.
+	 * Uses the default context and one worker per available processor.
+	 *
+	 * @param lowWatermark The number of quests under which a refill is started.
+	 * @param highWatermark The number of quests a refill fills the pool up to.
+	 */
+	public QuestPool(int lowWatermark, int highWatermark)
+	{
+		this(new GeneratorContext(), lowWatermark, highWatermark, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 * The pool is filled up to the high watermark in the background.
+	 *
+	 * @param context The context used to generate the quests. Its source of randomness isn't used, each quest getting its own.
+	 * @param lowWatermark The number of quests under which a refill is started.
+	 * @param highWatermark The number of quests a refill fills the pool up to.
+	 * @param workers The number of threads used to refill the pool.
+	 */
+	public QuestPool(GeneratorContext context, int lowWatermark, int highWatermark, int workers)
+	{
+		if(lowWatermark < 0 || highWatermark < 1 || lowWatermark >= highWatermark)
+			throw new IllegalArgumentException("Watermarks must verify 0 <= low < high, got low=" + lowWatermark + " high=" + highWatermark);
+		if(workers < 1)
+			throw new IllegalArgumentException("Workers must be at least 1, got " + workers);
+		this.context = context;
+		this.lowWatermark = lowWatermark;
+		this.highWatermark = highWatermark;
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.refills = new LongAdder();
+		this.refillLag = new LongAdder();
+		this.maxRefillLag = new AtomicLong();
+		this.randoms = ThreadLocal.withInitial(() -> new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+		this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "QuestPool refill");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.reserves = new EnumMap<>(Motivations.class);
+		for(Motivations motivation : Motivations.values())
+			this.reserves.put(motivation, new Reserve(motivation));
+		for(Reserve reserve : this.reserves.values())
+			reserve.requestRefill();
+	}
+
+	/**
+	 * Get a quest of a random motivation, taking in account probabilities. The motivation is drawn from a source of randomness of the pool kept for each thread.
+	 *
+	 * @return A Quest.
+	 */
+	public Quest take()
+	{
+		return take(Motivations.getRandom(this.randoms.get()));
+	}
+
+	/**
+	 * Get a quest of the given motivation. If the pool has none ready, the quest is generated in the calling thread.
+	 *
+	 * @param motivation The Motivation of the quest.
+	 * @return A Quest.
+	 */
+	public Quest take(Motivations motivation)
+	{
+		Reserve reserve = this.reserves.get(motivation);
+		Quest quest = reserve.poll();
+		if(quest != null)
+		{
+			this.hits.increment();
+			return quest;
+		}
+		this.misses.increment();
+		return QuestGenerator.createByMotivation(this.context, motivation);
+	}
+
+	/**
+	 * Used to get the number of ready quests for a motivation.
+	 *
+	 * @param motivation The motivation.
+	 * @return The number of quests.
+	 */
+	public int getAvailable(Motivations motivation)
+	{
+		return this.reserves.get(motivation).size.get();
+	}
+
+	/**
+	 * Used to get the number of quests taken from the pool.
+	 *
+	 * @return The hits.
+	 */
+	public long getHits()
+	{
+		return this.hits.sum();
+	}
+
+	/**
+	 * Used to get the number of quests that had to be generated inline because the pool was empty.
+	 *
+	 * @return The misses.
+	 */
+	public long getMisses()
+	{
+		return this.misses.sum();
+	}
+
+	/**
+	 * Used to get the ratio of quests taken from the pool.
+	 *
+	 * @return The hit rate, between 0 and 1 (1 if no quest has been asked yet).
+	 */
+	public double getHitRate()
+	{
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 1 : (double) hits / total;
+	}
+
+	/**
+	 * Used to get the number of refills done.
+	 *
+	 * @return The number of refills.
+	 */
+	public long getRefills()
+	{
+		return this.refills.sum();
+	}
+
+	/**
+	 * Used to get the average time between a motivation going under the low watermark and being back to the high watermark.
+	 *
+	 * @param unit The unit of the result.
+	 * @return The average refill lag.
+	 */
+	public double getAverageRefillLag(TimeUnit unit)
+	{
+		long refills = getRefills();
+		return refills == 0 ? 0 : (double) unit.convert(this.refillLag.sum(), TimeUnit.NANOSECONDS) / refills;
+	}
+
+	/**
+	 * Used to get the longest time between a motivation going under the low watermark and being back to the high watermark.
+	 *
+	 * @param unit The unit of the result.
+	 * @return The max refill lag.
+	 */
+	public long getMaxRefillLag(TimeUnit unit)
+	{
+		return unit.convert(this.maxRefillLag.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stop the refill workers. Quests can still be taken, they will be generated inline once the pool is empty.
+	 */
+	@Override
+	public void close()
+	{
+		this.workers.shutdownNow();
+	}
+
+	/**
+	 * Wait for the refill workers to stop after {@link #close()}.
+	 *
+	 * @param timeout The max time to wait.
+	 * @param unit The unit of the timeout.
+	 * @return True if the workers are stopped, false if the timeout elapsed before.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return this.workers.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * The ready quests of one motivation.
+	 */
+	private class Reserve
+	{
+		private final Motivations motivation;
+		private final ConcurrentLinkedQueue<Quest> quests;
+		private final AtomicInteger size;
+		private final AtomicBoolean refilling;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param motivation The motivation of the quests.
+		 */
+		Reserve(Motivations motivation)
+		{
+			this.motivation = motivation;
+			this.quests = new ConcurrentLinkedQueue<>();
+			this.size = new AtomicInteger();
+			this.refilling = new AtomicBoolean();
+		}
+
+		/**
+		 * Take a ready quest and start a refill if the low watermark is crossed.
+		 *
+		 * @return A Quest, null if none is ready.
+		 */
+		Quest poll()
+		{
+			Quest quest = this.quests.poll();
+			if(quest == null || this.size.decrementAndGet() < lowWatermark)
+				requestRefill();
+			return quest;
+		}
+
+		/**
+		 * Start a refill if none is running.
+		 */
+		void requestRefill()
+		{
+			if(workers.isShutdown() || !this.refilling.compareAndSet(false, true))
+				return;
+			long start = System.nanoTime();
+			try
+			{
+				workers.execute(() -> refill(start));
+			}
+			catch(RuntimeException e)
+			{
+				this.refilling.set(false);
+			}
+		}
+
+		/**
+		 * Generate quests up to the high watermark.
+		 *
+		 * @param start When the refill has been asked, in nanoseconds.
+		 */
+		private void refill(long start)
+		{
+			try
+			{
+				while(this.size.get() < highWatermark && !Thread.currentThread().isInterrupted())
+				{
+					this.quests.offer(QuestGenerator.createByMotivation(context, this.motivation));
+					this.size.incrementAndGet();
+				}
+				long lag = System.nanoTime() - start;
+				refills.increment();
+				refillLag.add(lag);
+				maxRefillLag.accumulateAndGet(lag, Math::max);
+			}
+			finally
+			{
+				this.refilling.set(false);
+			}
+			if(this.size.get() < lowWatermark)
+				requestRefill();
+		}
+	}
+}
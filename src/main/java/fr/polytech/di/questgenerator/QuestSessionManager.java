@@ -0,0 +1,1073 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ObjectiveType;
+import fr.polytech.di.questgenerator.interfaces.GameListener;
+import fr.polytech.di.questgenerator.interfaces.QuestListener;
+import fr.polytech.di.questgenerator.interfaces.SessionListener;
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.EventIndex;
+import fr.polytech.di.questgenerator.objects.GameEvent;
+import fr.polytech.di.questgenerator.objects.Quest;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the active quests of many players and gives them the events of the game.
+ * Players are spread over shards by their id. Each shard owns the sessions of its players and runs all the work on them in a single thread, so the quests of a player are never used by two threads at once and no lock is needed.
+ * Each session indexes the quests of its player in an {@link EventIndex}, so an event costs a lookup plus the actions it completes. Quests done are dropped from their session at the end of the task that completed them.
+ * Each shard counts the tasks and events it ran, and keeps a histogram of the latency of its tasks, from their submission to their end.
+ * The quests are only used by the threads of the shards once added: each quest gets an id, and the state of the quests is given back as immutable snapshots built by the thread of the shard, never as the quests or actions themselves.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestSessionManager implements AutoCloseable
+{
+	private final Shard[] shards;
+	private final List<SessionListener> listeners;
+	private final ConcurrentHashMap<Quest, Long> ids;
+	private final AtomicLong nextId;
+	private final long start;
+
+	/**
+	 * Constructor.
+	 * Uses one shard per available processor.
+	 */
+	public QuestSessionManager()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param shards The number of shards, each one having its own thread.
+	 */
+	public QuestSessionManager(int shards)
+	{
+		if(shards < 1)
+			throw new IllegalArgumentException("Shards must be at least 1, got " + shards);
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.ids = new ConcurrentHashMap<>();
+		this.nextId = new AtomicLong();
+		this.start = System.nanoTime();
+		this.shards = new Shard[shards];
+		for(int i = 0; i < shards; i++)
+			this.shards[i] = new Shard(i);
+	}
+
+	/**
+	 * Used to get the number of shards.
+	 *
+	 * @return The number of shards.
+	 */
+	public int getShardCount()
+	{
+		return this.shards.length;
+	}
+
+	/**
+	 * Used to get the shard of a player. Ids are mixed first so that consecutive ids are spread over the shards.
+	 *
+	 * @param player The id of the player.
+	 * @return The index of the shard.
+	 */
+	public int getShardIndex(long player)
+	{
+		long mixed = (player * 0x9E3779B97F4A7C15L) >>> 32;
+		return (int) ((mixed * this.shards.length) >>> 32);
+	}
+
+	/**
+	 * Add a quest to the session of a player, creating the session if needed.
+	 * The quest must not be used by the caller anymore, it belongs to the thread of the shard of the player until it is removed.
+	 * A quest can only be part of one session at a time, whatever the player.
+	 *
+	 * @param player The id of the player.
+	 * @param quest The root quest to add.
+	 * @return A future giving the id of the quest once it has been added. A quest already done is ignored.
+	 * @throws IllegalArgumentException If the quest isn't a root quest or is already part of a session.
+	 * @throws RejectedExecutionException If the manager has been closed.
+	 */
+	public CompletableFuture<Long> addQuest(long player, Quest quest)
+	{
+		if(quest.getParent() != null)
+			throw new IllegalArgumentException("Only root quests can be added to a session");
+		long id = this.nextId.incrementAndGet();
+		if(this.ids.putIfAbsent(quest, id) != null)
+			throw new IllegalArgumentException("Quest already part of a session");
+		Shard shard = this.shards[getShardIndex(player)];
+		try
+		{
+			return shard.submit(0, () -> {
+				Session session = shard.sessions.computeIfAbsent(player, Session::new);
+				session.add(quest);
+				shard.release(session);
+				return id;
+			});
+		}
+		catch(RejectedExecutionException e)
+		{
+			this.ids.remove(quest, id);
+			throw e;
+		}
+	}
+
+	/**
+	 * Remove a quest from the session of a player.
+	 *
+	 * @param player The id of the player.
+	 * @param quest The quest to remove.
+	 * @return A future giving true if the quest was part of the session, false if not.
+	 */
+	public CompletableFuture<Boolean> removeQuest(long player, Quest quest)
+	{
+		Shard shard = this.shards[getShardIndex(player)];
+		return shard.submit(0, () -> {
+			Session session = shard.sessions.get(player);
+			if(session == null || !session.remove(quest))
+				return false;
+			shard.release(session);
+			return true;
+		});
+	}
+
+	/**
+	 * Remove the session of a player.
+	 *
+	 * @param player The id of the player.
+	 * @return A future giving the quests the player had, empty if none.
+	 */
+	public CompletableFuture<List<Quest>> removePlayer(long player)
+	{
+		Shard shard = this.shards[getShardIndex(player)];
+		return shard.submit(0, () -> {
+			Session session = shard.sessions.get(player);
+			if(session == null)
+				return Collections.<Quest>emptyList();
+			List<Quest> quests = new ArrayList<>(session.quests);
+			for(Quest quest : quests)
+				session.remove(quest);
+			shard.release(session);
+			return quests;
+		});
+	}
+
+	/**
+	 * Used to get the active quests of a player.
+	 *
+	 * @param player The id of the player.
+	 * @return A future giving snapshots of the quests, in the order they have been added.
+	 */
+	public CompletableFuture<List<QuestSnapshot>> getQuests(long player)
+	{
+		Shard shard = this.shards[getShardIndex(player)];
+		return shard.submit(0, () -> {
+			Session session = shard.sessions.get(player);
+			if(session == null)
+				return Collections.<QuestSnapshot>emptyList();
+			List<QuestSnapshot> quests = new ArrayList<>(session.quests.size());
+			for(Quest quest : session.quests)
+				quests.add(session.snapshot(quest));
+			return quests;
+		});
+	}
+
+	/**
+	 * Used to get the actions a player can do now, one for each of their quests.
+	 *
+	 * @param player The id of the player.
+	 * @return A future giving snapshots of the doable leaves.
+	 */
+	public CompletableFuture<List<ActionSnapshot>> getDoableLeaves(long player)
+	{
+		Shard shard = this.shards[getShardIndex(player)];
+		return shard.submit(0, () -> {
+			Session session = shard.sessions.get(player);
+			return session == null ? Collections.<ActionSnapshot>emptyList() : session.snapshot(session.index.getDoableLeaves());
+		});
+	}
+
+	/**
+	 * Give events to the quests of a player, one after the other.
+	 *
+	 * @param player The id of the player.
+	 * @param events The events, in the order they happened.
+	 * @return A future giving snapshots of the actions done, in the order they have been done.
+	 */
+	public CompletableFuture<List<ActionSnapshot>> apply(long player, List<GameEvent> events)
+	{
+		List<GameEvent> copy = new ArrayList<>(events);
+		Shard shard = this.shards[getShardIndex(player)];
+		return shard.submit(copy.size(), () -> shard.apply(player, copy));
+	}
+
+	/**
+	 * Give a tick of events to the quests of several players. The events of the players of a shard are given in a single task.
+	 *
+	 * @param events The events of each player, in the order they happened.
+	 * @return A future giving snapshots of the actions done for each player that has a session.
+	 */
+	public CompletableFuture<Map<Long, List<ActionSnapshot>>> apply(Map<Long, List<GameEvent>> events)
+	{
+		List<List<Map.Entry<Long, List<GameEvent>>>> batches = new ArrayList<>(this.shards.length);
+		int[] counts = new int[this.shards.length];
+		for(int i = 0; i < this.shards.length; i++)
+			batches.add(new ArrayList<>());
+		for(Map.Entry<Long, List<GameEvent>> entry : events.entrySet())
+		{
+			int index = getShardIndex(entry.getKey());
+			batches.get(index).add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), new ArrayList<>(entry.getValue())));
+			counts[index] += entry.getValue().size();
+		}
+		List<CompletableFuture<Map<Long, List<ActionSnapshot>>>> futures = new ArrayList<>();
+		for(int i = 0; i < this.shards.length; i++)
+		{
+			List<Map.Entry<Long, List<GameEvent>>> batch = batches.get(i);
+			if(batch.isEmpty())
+				continue;
+			Shard shard = this.shards[i];
+			futures.add(shard.submit(counts[i], () -> {
+				Map<Long, List<ActionSnapshot>> done = new HashMap<>();
+				for(Map.Entry<Long, List<GameEvent>> entry : batch)
+					if(shard.sessions.containsKey(entry.getKey()))
+						done.put(entry.getKey(), shard.apply(entry.getKey(), entry.getValue()));
+				return done;
+			}));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+			Map<Long, List<ActionSnapshot>> done = new HashMap<>();
+			for(CompletableFuture<Map<Long, List<ActionSnapshot>>> future : futures)
+				done.putAll(future.join());
+			return done;
+		});
+	}
+
+	/**
+	 * Used to get a listener giving the events of the game to the quests of a player.
+	 * Each call waits for the event to be handled by the shard of the player, it must not be used from a session listener.
+	 *
+	 * @param player The id of the player.
+	 * @return The listener.
+	 */
+	public GameListener getListener(long player)
+	{
+		return new PlayerListener(player);
+	}
+
+	/**
+	 * Used to add a listener notified of the actions and quests done by all the players.
+	 *
+	 * @param listener The listener.
+	 */
+	public void addSessionListener(SessionListener listener)
+	{
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Used to remove a session listener.
+	 *
+	 * @param listener The listener.
+	 */
+	public void removeSessionListener(SessionListener listener)
+	{
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Used to get the statistics of all the shards.
+	 *
+	 * @return The statistics, by shard index.
+	 */
+	public List<ShardStats> getStats()
+	{
+		List<ShardStats> stats = new ArrayList<>(this.shards.length);
+		for(int i = 0; i < this.shards.length; i++)
+			stats.add(getStats(i));
+		return stats;
+	}
+
+	/**
+	 * Used to get the statistics of a shard.
+	 *
+	 * @param shard The index of the shard.
+	 * @return The statistics.
+	 */
+	public ShardStats getStats(int shard)
+	{
+		Shard s = this.shards[shard];
+		return new ShardStats(shard, s.players, s.tasks.sum(), s.events.sum(), System.nanoTime() - this.start, s.latencies.snapshot());
+	}
+
+	/**
+	 * Stop the threads of the shards. The tasks already submitted are run, new ones are rejected.
+	 */
+	@Override
+	public void close()
+	{
+		for(Shard shard : this.shards)
+			shard.executor.shutdown();
+	}
+
+	/**
+	 * A group of players and the thread running the work on their sessions.
+	 */
+	private static class Shard
+	{
+		private final ExecutorService executor;
+		private final HashMap<Long, Session> sessions;
+		private final LongAdder tasks;
+		private final LongAdder events;
+		private final LatencyHistogram latencies;
+		private volatile int players;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param index The index of the shard.
+		 */
+		Shard(int index)
+		{
+			this.sessions = new HashMap<>();
+			this.tasks = new LongAdder();
+			this.events = new LongAdder();
+			this.latencies = new LatencyHistogram();
+			this.executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Quest session shard " + index);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		/**
+		 * Run a task in the thread of the shard.
+		 *
+		 * @param events The number of events given by the task.
+		 * @param task The task.
+		 * @param <T> The type of the result.
+		 * @return A future giving the result of the task.
+		 */
+		<T> CompletableFuture<T> submit(int events, Supplier<T> task)
+		{
+			long submitted = System.nanoTime();
+			return CompletableFuture.supplyAsync(() -> {
+				try
+				{
+					return task.get();
+				}
+				finally
+				{
+					this.tasks.increment();
+					this.events.add(events);
+					this.latencies.record(System.nanoTime() - submitted);
+				}
+			}, this.executor);
+		}
+
+		/**
+		 * Give events to the quests of a player. Must be called by the thread of the shard.
+		 *
+		 * @param player The id of the player.
+		 * @param events The events.
+		 * @return Snapshots of the actions done.
+		 */
+		List<ActionSnapshot> apply(long player, List<GameEvent> events)
+		{
+			Session session = this.sessions.get(player);
+			if(session == null)
+				return Collections.emptyList();
+			List<ActionSnapshot> done = session.snapshot(session.index.apply(events));
+			session.removeDone();
+			release(session);
+			return done;
+		}
+
+		/**
+		 * Drop a session if it has no quest anymore, and update the number of players. Must be called by the thread of the shard.
+		 *
+		 * @param session The session.
+		 */
+		void release(Session session)
+		{
+			if(session.quests.isEmpty())
+				this.sessions.remove(session.player);
+			this.players = this.sessions.size();
+		}
+	}
+
+	/**
+	 * The active quests of a player, only used by the thread of its shard.
+	 */
+	private class Session implements QuestListener
+	{
+		private final long player;
+		private final EventIndex index;
+		private final ArrayList<Quest> quests;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param player The id of the player.
+		 */
+		Session(long player)
+		{
+			this.player = player;
+			this.index = new EventIndex();
+			this.quests = new ArrayList<>();
+		}
+
+		/**
+		 * Add a quest, if not done. The quest is known not to be part of any session.
+		 *
+		 * @param quest The quest.
+		 */
+		void add(Quest quest)
+		{
+			if(quest.isDone())
+			{
+				ids.remove(quest);
+				return;
+			}
+			this.quests.add(quest);
+			this.index.add(quest);
+			quest.addQuestListener(this);
+		}
+
+		/**
+		 * Remove a quest.
+		 *
+		 * @param quest The quest.
+		 * @return True if the quest was part of the session, false if not.
+		 */
+		boolean remove(Quest quest)
+		{
+			if(!this.quests.remove(quest))
+				return false;
+			this.index.remove(quest);
+			quest.removeQuestListener(this);
+			ids.remove(quest);
+			return true;
+		}
+
+		/**
+		 * Used to get a snapshot of a quest of the session.
+		 *
+		 * @param quest The quest.
+		 * @return The snapshot.
+		 */
+		QuestSnapshot snapshot(Quest quest)
+		{
+			Action action = quest.getActionToDo();
+			long id = ids.get(quest);
+			return new QuestSnapshot(id, quest.hasDescription() ? quest.getDescription() : null, quest.isDone(), action == null ? null : new ActionSnapshot(id, action));
+		}
+
+		/**
+		 * Used to get snapshots of actions of the quests of the session.
+		 *
+		 * @param actions The actions.
+		 * @return The snapshots, in the same order.
+		 */
+		List<ActionSnapshot> snapshot(Collection<Action> actions)
+		{
+			List<ActionSnapshot> snapshots = new ArrayList<>(actions.size());
+			for(Action action : actions)
+			{
+				Quest quest = action.getParentQuest();
+				while(quest.getParent() != null)
+					quest = quest.getParent().getParentQuest();
+				snapshots.add(new ActionSnapshot(ids.get(quest), action));
+			}
+			return snapshots;
+		}
+
+		/**
+		 * Remove the quests done. They are kept until the events being given have been handled, as the quests notify their listeners while iterating over them.
+		 */
+		void removeDone()
+		{
+			for(int i = this.quests.size() - 1; i >= 0; i--)
+				if(this.quests.get(i).isDone())
+					remove(this.quests.get(i));
+		}
+
+		@Override
+		public void actionDone(Action action)
+		{
+			for(SessionListener listener : listeners)
+				listener.actionDone(this.player, action);
+		}
+
+		@Override
+		public void questDone(Quest quest)
+		{
+			for(SessionListener listener : listeners)
+				listener.questDone(this.player, quest);
+		}
+	}
+
+	/**
+	 * Histogram of latencies in nanoseconds, with 8 buckets for each power of two, so that a value is known with a precision of 12.5%.
+	 * It can be recorded by a thread while being read by others.
+	 */
+	static class LatencyHistogram
+	{
+		private static final int SUB_BUCKETS = 8;
+		private static final int SUB_BITS = 3;
+		private final AtomicLongArray counts;
+
+		/**
+		 * Constructor.
+		 */
+		LatencyHistogram()
+		{
+			this.counts = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+		}
+
+		/**
+		 * Used to get the bucket of a value.
+		 *
+		 * @param value The value, positive.
+		 * @return The index of the bucket.
+		 */
+		static int getBucket(long value)
+		{
+			if(value < SUB_BUCKETS)
+				return (int) Math.max(value, 0);
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+		}
+
+		/**
+		 * Used to get the highest value of a bucket.
+		 *
+		 * @param bucket The index of the bucket.
+		 * @return The highest value.
+		 */
+		static long getUpperBound(int bucket)
+		{
+			if(bucket < SUB_BUCKETS)
+				return bucket;
+			int shift = bucket / SUB_BUCKETS - 1;
+			long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+			return lowest + (1L << shift) - 1;
+		}
+
+		/**
+		 * Record a value.
+		 *
+		 * @param value The value, in nanoseconds.
+		 */
+		void record(long value)
+		{
+			this.counts.incrementAndGet(getBucket(value));
+		}
+
+		/**
+		 * Used to get a copy of the counts of the buckets.
+		 *
+		 * @return The counts.
+		 */
+		long[] snapshot()
+		{
+			long[] counts = new long[this.counts.length()];
+			for(int i = 0; i < counts.length; i++)
+				counts[i] = this.counts.get(i);
+			return counts;
+		}
+
+		/**
+		 * Used to get a quantile of the values of a histogram.
+		 * The value is the upper bound of the bucket holding the value of rank ceil(quantile * total), the first value having the rank 1.
+		 *
+		 * @param counts The counts of the buckets, as given by {@link #snapshot()}.
+		 * @param quantile The quantile, between 0 and 1.
+		 * @return The value, 0 if the histogram is empty.
+		 */
+		static long getQuantile(long[] counts, double quantile)
+		{
+			if(quantile < 0 || quantile > 1)
+				throw new IllegalArgumentException("Quantile must be between 0 and 1, got " + quantile);
+			long total = 0;
+			for(long count : counts)
+				total += count;
+			if(total == 0)
+				return 0;
+			long rank = Math.max(1, (long) Math.ceil(quantile * total));
+			long seen = 0;
+			for(int i = 0; i < counts.length; i++)
+			{
+				seen += counts[i];
+				if(seen >= rank)
+					return getUpperBound(i);
+			}
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * State of a quest of a session at the time it has been asked. It doesn't change when the quest progresses.
+	 */
+	public static class QuestSnapshot
+	{
+		private final long id;
+		private final String description;
+		private final boolean done;
+		private final ActionSnapshot actionToDo;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param id The id of the quest.
+		 * @param description The description of the quest, null if none.
+		 * @param done The state of the quest.
+		 * @param actionToDo The action to do of the quest, null if none.
+		 */
+		private QuestSnapshot(long id, String description, boolean done, ActionSnapshot actionToDo)
+		{
+			this.id = id;
+			this.description = description;
+			this.done = done;
+			this.actionToDo = actionToDo;
+		}
+
+		/**
+		 * Used to get the id of the quest, given when it has been added.
+		 *
+		 * @return The id.
+		 */
+		public long getId()
+		{
+			return this.id;
+		}
+
+		/**
+		 * Used to get the description of the quest.
+		 *
+		 * @return The description, null if none.
+		 */
+		public String getDescription()
+		{
+			return this.description;
+		}
+
+		/**
+		 * Used to know if the quest was done.
+		 *
+		 * @return True if done, false if not.
+		 */
+		public boolean isDone()
+		{
+			return this.done;
+		}
+
+		/**
+		 * Used to get the action that could be done in the quest.
+		 *
+		 * @return The action to do, empty if none.
+		 */
+		public Optional<ActionSnapshot> getActionToDo()
+		{
+			return Optional.ofNullable(this.actionToDo);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Quest " + this.id + (this.done ? " (done)" : "") + (this.description == null ? "" : ": " + this.description);
+		}
+	}
+
+	/**
+	 * State of an action of a session at the time it has been asked. It doesn't change when the action progresses.
+	 */
+	public static class ActionSnapshot
+	{
+		private final long quest;
+		private final ActionType type;
+		private final List<XMLStringObjectiveElement> objectives;
+		private final String text;
+		private final boolean done;
+
+		/**
+		 * Constructor. Must be called by the thread of the shard of the action.
+		 *
+		 * @param quest The id of the root quest of the action.
+		 * @param action The action.
+		 */
+		private ActionSnapshot(long quest, Action action)
+		{
+			this.quest = quest;
+			this.type = action.getActionType();
+			List<ObjectiveType> types = this.type.getEventObjectives();
+			XMLStringObjectiveElement[] objectives = new XMLStringObjectiveElement[types.size()];
+			for(int i = 0; i < objectives.length; i++)
+				objectives[i] = action.getObjective(types.get(i));
+			this.objectives = Collections.unmodifiableList(Arrays.asList(objectives));
+			this.text = action.getAsString();
+			this.done = action.isDone();
+		}
+
+		/**
+		 * Used to get the id of the root quest of the action.
+		 *
+		 * @return The id of the quest.
+		 */
+		public long getQuest()
+		{
+			return this.quest;
+		}
+
+		/**
+		 * Used to get the type of the action.
+		 *
+		 * @return The type.
+		 */
+		public ActionType getActionType()
+		{
+			return this.type;
+		}
+
+		/**
+		 * Used to get the objectives an event needs to complete the action.
+		 *
+		 * @return The objectives, in the order given by {@link ActionType#getEventObjectives()}.
+		 */
+		public List<XMLStringObjectiveElement> getObjectives()
+		{
+			return this.objectives;
+		}
+
+		/**
+		 * Used to get the event that would complete the action.
+		 *
+		 * @return The event, empty if the action can't be completed by an event.
+		 */
+		public Optional<GameEvent> getEvent()
+		{
+			if(this.objectives.isEmpty())
+				return Optional.empty();
+			return Optional.of(new GameEvent(this.type, this.objectives.toArray(new XMLStringObjectiveElement[this.objectives.size()])));
+		}
+
+		/**
+		 * Used to get the text of the action.
+		 *
+		 * @return The text.
+		 */
+		public String getAsString()
+		{
+			return this.text;
+		}
+
+		/**
+		 * Used to know if the action was done.
+		 *
+		 * @return True if done, false if not.
+		 */
+		public boolean isDone()
+		{
+			return this.done;
+		}
+
+		@Override
+		public String toString()
+		{
+			return this.text;
+		}
+	}
+
+	/**
+	 * Statistics of a shard at the time they have been asked.
+	 */
+	public static class ShardStats
+	{
+		private final int shard;
+		private final int players;
+		private final long tasks;
+		private final long events;
+		private final long elapsed;
+		private final long[] latencies;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param shard The index of the shard.
+		 * @param players The number of players with a session.
+		 * @param tasks The number of tasks run.
+		 * @param events The number of events given.
+		 * @param elapsed The time since the manager has been created, in nanoseconds.
+		 * @param latencies The counts of the latency histogram.
+		 */
+		private ShardStats(int shard, int players, long tasks, long events, long elapsed, long[] latencies)
+		{
+			this.shard = shard;
+			this.players = players;
+			this.tasks = tasks;
+			this.events = events;
+			this.elapsed = elapsed;
+			this.latencies = latencies;
+		}
+
+		/**
+		 * Used to get the index of the shard.
+		 *
+		 * @return The index.
+		 */
+		public int getShard()
+		{
+			return this.shard;
+		}
+
+		/**
+		 * Used to get the number of players with a session in the shard.
+		 *
+		 * @return The number of players.
+		 */
+		public int getPlayers()
+		{
+			return this.players;
+		}
+
+		/**
+		 * Used to get the number of tasks run by the shard.
+		 *
+		 * @return The number of tasks.
+		 */
+		public long getTasks()
+		{
+			return this.tasks;
+		}
+
+		/**
+		 * Used to get the number of events given to the quests of the shard.
+		 *
+		 * @return The number of events.
+		 */
+		public long getEvents()
+		{
+			return this.events;
+		}
+
+		/**
+		 * Used to get the average number of events handled by second since the manager has been created.
+		 *
+		 * @return The throughput, in events per second.
+		 */
+		public double getThroughput()
+		{
+			return this.elapsed == 0 ? 0 : this.events * 1e9 / this.elapsed;
+		}
+
+		/**
+		 * Used to get a quantile of the latency of the tasks, from their submission to their end.
+		 * The value is the upper bound of its bucket, it is at most 12.5% over the real one.
+		 *
+		 * @param quantile The quantile, between 0 and 1.
+		 * @param unit The unit of the result.
+		 * @return The latency, 0 if no task has been run.
+		 */
+		public long getLatency(double quantile, TimeUnit unit)
+		{
+			return unit.convert(LatencyHistogram.getQuantile(this.latencies, quantile), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Used to get the 99th percentile of the latency of the tasks.
+		 *
+		 * @param unit The unit of the result.
+		 * @return The latency, 0 if no task has been run.
+		 */
+		public long getP99Latency(TimeUnit unit)
+		{
+			return getLatency(0.99, unit);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Shard " + this.shard + ": " + this.players + " players, " + this.events + " events (" + Math.round(getThroughput()) + "/s), p99 " + getP99Latency(TimeUnit.MICROSECONDS) + "us";
+		}
+	}
+
+	/**
+	 * Gives the events of the game to the quests of a player, waiting for them to be handled.
+	 */
+	private class PlayerListener implements GameListener
+	{
+		private final long player;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param player The id of the player.
+		 */
+		PlayerListener(long player)
+		{
+			this.player = player;
+		}
+
+		/**
+		 * Give an event to the quests of the player.
+		 *
+		 * @param event The event.
+		 * @return True if the event updated the progression, false if not.
+		 */
+		private boolean send(GameEvent event)
+		{
+			return !apply(this.player, Collections.singletonList(event)).join().isEmpty();
+		}
+
+		@Override
+		public boolean captureEvent(XMLStringObjectiveElement pnj)
+		{
+			return send(new GameEvent(ActionType.CAPTURE, pnj));
+		}
+
+		@Override
+		public boolean damageEvent(XMLStringObjectiveElement target)
+		{
+			return send(new GameEvent(ActionType.DAMAGE, target));
+		}
+
+		@Override
+		public boolean defendEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.DEFEND, object));
+		}
+
+		@Override
+		public boolean escortEvent(XMLStringObjectiveElement pnj)
+		{
+			return send(new GameEvent(ActionType.ESCORT, pnj));
+		}
+
+		@Override
+		public boolean exchangeEvent(XMLStringObjectiveElement objectGive, XMLStringObjectiveElement objectGet, XMLStringObjectiveElement to)
+		{
+			return send(new GameEvent(ActionType.EXCHANGE, objectGive, objectGet, to));
+		}
+
+		@Override
+		public boolean experimentEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.EXPERIMENT, object));
+		}
+
+		@Override
+		public boolean exploreEvent(XMLStringObjectiveElement area)
+		{
+			return send(new GameEvent(ActionType.EXPLORE, area));
+		}
+
+		@Override
+		public boolean gatherEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.GATHER, object));
+		}
+
+		@Override
+		public boolean getEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
+		{
+			return send(new GameEvent(ActionType.GET, object, from));
+		}
+
+		@Override
+		public boolean giveEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement to)
+		{
+			return send(new GameEvent(ActionType.GIVE, object, to));
+		}
+
+		@Override
+		public boolean gotoEvent(XMLStringObjectiveElement area)
+		{
+			return send(new GameEvent(ActionType.GOTO, area));
+		}
+
+		@Override
+		public boolean killEvent(XMLStringObjectiveElement pnj)
+		{
+			return send(new GameEvent(ActionType.KILL, pnj));
+		}
+
+		@Override
+		public boolean learnEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.LEARN, object));
+		}
+
+		@Override
+		public boolean listenEvent(XMLStringObjectiveElement pnj)
+		{
+			return send(new GameEvent(ActionType.LISTEN, pnj));
+		}
+
+		@Override
+		public boolean readEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.READ, object));
+		}
+
+		@Override
+		public boolean repairEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.REPAIR, object));
+		}
+
+		@Override
+		public boolean reportEvent(XMLStringObjectiveElement to)
+		{
+			return send(new GameEvent(ActionType.REPORT, to));
+		}
+
+		@Override
+		public boolean spyEvent(XMLStringObjectiveElement on)
+		{
+			return send(new GameEvent(ActionType.SPY, on));
+		}
+
+		@Override
+		public boolean stealEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
+		{
+			return send(new GameEvent(ActionType.STEAL, object, from));
+		}
+
+		@Override
+		public boolean stealthEvent(XMLStringObjectiveElement object)
+		{
+			return send(new GameEvent(ActionType.STEALTH, object));
+		}
+
+		@Override
+		public boolean takeEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
+		{
+			return send(new GameEvent(ActionType.TAKE, object, from));
+		}
+
+		@Override
+		public boolean useEvent(XMLStringObjectiveElement used, XMLStringObjectiveElement on)
+		{
+			return send(new GameEvent(ActionType.USE, used, on));
+		}
+	}
+}
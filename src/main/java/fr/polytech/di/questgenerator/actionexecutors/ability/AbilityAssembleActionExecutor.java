@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.ability;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class AbilityAssembleActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(parent, "object/stuff/weapon/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(context, parent, "object/stuff/weapon/*");
 		Action actionRepair = new Action(quest, this.getClass(), depth, ActionType.REPAIR, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectiveObject)), false);
-		Action actionUse = new Action(quest, this.getClass(), depth, ActionType.USE, buildObjective(objectives, new ObjectiveHelper(OBJ_USE, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(parent, "object/training/*"))), false);
+		Action actionUse = new Action(quest, this.getClass(), depth, ActionType.USE, buildObjective(objectives, new ObjectiveHelper(OBJ_USE, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "object/training/*"))), false);
 		return Quest.initQuest(quest, getSentence("Ability_Assemble", objectiveObject), actionRepair, actionUse);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.ability;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,10 +19,10 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJECTIVE;
 public class AbilityPracticeCombatActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		Action actionDamage = new Action(quest, this.getClass(), depth, ActionType.DAMAGE, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "object/training/*"))), false);
+		Quest quest = new Quest(context, parent);
+		Action actionDamage = new Action(quest, this.getClass(), depth, ActionType.DAMAGE, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "object/training/*"))), false);
 		return Quest.initQuest(quest, getSentence("Ability_PracticeCombat"), actionDamage);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.ability;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -19,10 +20,10 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJ_USE;
 public class AbilityPracticeSkillActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		Action actionUse = new Action(quest, this.getClass(), depth, ActionType.USE, buildObjective(objectives, new ObjectiveHelper(OBJ_USE, DataHandler.getRandomFromCategories(parent, "skill/magic/*")), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(parent, "object/training/*"))), false);
+		Quest quest = new Quest(context, parent);
+		Action actionUse = new Action(quest, this.getClass(), depth, ActionType.USE, buildObjective(objectives, new ObjectiveHelper(OBJ_USE, DataHandler.getRandomFromCategories(context, parent, "skill/magic/*")), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "object/training/*"))), false);
 		return Quest.initQuest(quest, getSentence("Ability_PracticeSkill", actionUse.getObjective(OBJ_USE)), actionUse);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.ability;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class AbilityResearch2ActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(parent, "object/readable/learning/martial/*");
-		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(parent, "pnj/being/*", "area/place/*"))));
-		Action actionExperiment = new Action(quest, this.getClass(), depth, ActionType.EXPERIMENT, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "skill/martial/*"))), false);
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(context, parent, "object/readable/learning/martial/*");
+		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "pnj/being/*", "area/place/*"))));
+		Action actionExperiment = new Action(quest, this.getClass(), depth, ActionType.EXPERIMENT, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "skill/martial/*"))), false);
 		return Quest.initQuest(quest, getSentence("Ability_Research2"), actionGet, actionExperiment);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.QuestGenerator;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -15,9 +16,8 @@ import java.util.Optional;
 public class ActionQuestActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		return QuestGenerator.createRandomSubquest(parent, depth, objectives);
+		return QuestGenerator.createRandomSubquest(context, parent, depth, objectives);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action.get;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,17 +19,17 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class ActionGetExchangeActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(parent, "object/*");
-		XMLStringObjectiveElement pnjGet = DataHandler.getRandomFromCategories(parent, "pnj/being/*", "area/*");
-		XMLStringObjectiveElement pnjExchange = DataHandler.getRandomFromCategories(parent, "pnj/being/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(context, parent, "object/*");
+		XMLStringObjectiveElement pnjGet = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*", "area/*");
+		XMLStringObjectiveElement pnjExchange = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*");
 		ObjectiveHelper getLocHelper;
 		if(pnjGet.isInPath("pnj/being/*"))
 			getLocHelper = new ObjectiveHelper(LOC_OBJECTIVE, pnjGet);
 		else
-			getLocHelper = new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(parent, "pnj/being/*"));
+			getLocHelper = new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "pnj/being/*"));
 		Action actionGotoSteal = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, pnjGet)));
 		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveObject), getLocHelper));
 		Action actionGotoSubquest = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, pnjExchange)));
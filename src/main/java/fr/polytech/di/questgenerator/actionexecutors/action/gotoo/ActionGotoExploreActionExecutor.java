@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action.gotoo;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,14 +19,14 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJECTIVE;
 public class ActionGotoExploreActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
+		Quest quest = new Quest(context, parent);
 		ObjectiveHelper objectiveHelper;
 		if(objectives.get().get(OBJECTIVE).isInPath("pnj/being/*"))
-			objectiveHelper = new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "area/*"));
+			objectiveHelper = new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "area/*"));
 		else
-			objectiveHelper = new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "area/wild/*"));
+			objectiveHelper = new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "area/wild/*"));
 		Action actionExplore = new Action(quest, this.getClass(), depth, ActionType.EXPLORE, buildObjective(objectives, objectiveHelper), false);
 		return Quest.initQuest(quest, actionExplore);
 	}
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action.learn;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class ActionLearnGiveActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(parent, "object/*");
-		XMLStringObjectiveElement objectiveListen = DataHandler.getRandomFromCategories(parent, "pnj/being/*");
-		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(parent, "area/*"))));
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveObject = DataHandler.getRandomFromCategories(context, parent, "object/*");
+		XMLStringObjectiveElement objectiveListen = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*");
+		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "area/*"))));
 		Action actionGive = new Action(quest, this.getClass(), depth, ActionType.GIVE, buildObjective(objectives, new ObjectiveHelper(OBJ_GIVE, objectiveObject), new ObjectiveHelper(LOC_OBJECTIVE, objectiveListen)), false);
 		Action actionListen = new Action(quest, this.getClass(), depth, ActionType.LISTEN, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectiveListen)), false);
 		return Quest.initQuest(quest, actionGet, actionGive, actionListen);
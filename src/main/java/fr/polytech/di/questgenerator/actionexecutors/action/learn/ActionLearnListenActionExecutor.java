@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action.learn;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,10 +19,10 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJECTIVE;
 public class ActionLearnListenActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveObj = DataHandler.getRandomFromCategories(parent, "pnj/being/*", "area/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveObj = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*", "area/*");
 		ObjectiveHelper listenHelper;
 		ObjectiveHelper subquestHelper;
 		if(objectiveObj.isInPath("pnj/being/*"))
@@ -31,7 +32,7 @@ public class ActionLearnListenActionExecutor implements ActionExecutor
 		}
 		else
 		{
-			XMLStringObjectiveElement pnjListen = DataHandler.getRandomFromCategories(parent, "pnj/being/*");
+			XMLStringObjectiveElement pnjListen = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*");
 			listenHelper = new ObjectiveHelper(OBJECTIVE, pnjListen);
 			subquestHelper = new ObjectiveHelper(OBJECTIVE, pnjListen);
 		}
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.action.learn;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,11 +19,11 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class ActionLearnReadActionListener implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectivePlace = DataHandler.getRandomFromCategories(parent, "area/place/*");
-		XMLStringObjectiveElement objectiveRead = DataHandler.getRandomFromCategories(parent, "object/readable/learning/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectivePlace = DataHandler.getRandomFromCategories(context, parent, "area/place/*");
+		XMLStringObjectiveElement objectiveRead = DataHandler.getRandomFromCategories(context, parent, "object/readable/learning/*");
 		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectivePlace)));
 		Action actionGet = new Action(quest, this.getClass(), depth, ActionType.GET, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, objectiveRead), new ObjectiveHelper(LOC_OBJECTIVE, objectivePlace)));
 		Action actionRead = new Action(quest, this.getClass(), depth, ActionType.READ, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectiveRead)), false);
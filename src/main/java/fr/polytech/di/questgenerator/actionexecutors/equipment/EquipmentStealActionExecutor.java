@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.equipment;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class EquipmentStealActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement pnjObjective = DataHandler.getRandomFromCategories(parent, "pnj/being/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement pnjObjective = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*");
 		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, pnjObjective)));
-		Action actionSteal = new Action(quest, this.getClass(), depth, ActionType.STEAL, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, DataHandler.getRandomFromCategories(parent, "object/stuff/*")), new ObjectiveHelper(PNJ, pnjObjective)));
+		Action actionSteal = new Action(quest, this.getClass(), depth, ActionType.STEAL, buildObjective(objectives, new ObjectiveHelper(OBJ_GET, DataHandler.getRandomFromCategories(context, parent, "object/stuff/*")), new ObjectiveHelper(PNJ, pnjObjective)));
 		return Quest.initQuest(quest, getSentence("Equipment_Steal", actionSteal.getObjective(OBJ_GET)), actionGoto, actionSteal);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.equipment;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
 public class EquipmentTradeActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectivePNJ = DataHandler.getRandomFromCategories(parent, "pnj/being/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectivePNJ = DataHandler.getRandomFromCategories(context, parent, "pnj/being/*");
 		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectivePNJ)));
-		Action actionExchange = new Action(quest, this.getClass(), depth, ActionType.EXCHANGE, buildObjective(objectives, new ObjectiveHelper(OBJ_GIVE, DataHandler.getRandomFromCategories(parent, "object/stuff/*")), new ObjectiveHelper(OBJ_GET, DataHandler.getRandomFromCategories(parent, "object/stuff/*")), new ObjectiveHelper(PNJ, objectivePNJ)), false);
+		Action actionExchange = new Action(quest, this.getClass(), depth, ActionType.EXCHANGE, buildObjective(objectives, new ObjectiveHelper(OBJ_GIVE, DataHandler.getRandomFromCategories(context, parent, "object/stuff/*")), new ObjectiveHelper(OBJ_GET, DataHandler.getRandomFromCategories(context, parent, "object/stuff/*")), new ObjectiveHelper(PNJ, objectivePNJ)), false);
 		return Quest.initQuest(quest, getSentence("Equipment_Trade", actionExchange.getObjective(OBJ_GET)), actionGoto, actionExchange);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.protection;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,11 +19,11 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJECTIVE;
 public class ProtectionDiversion2ActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "area/place/*"))));
-		Action actionDamage = new Action(quest, this.getClass(), depth, ActionType.DAMAGE, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(parent, "area/fortification/*"))), false);
-		return Quest.initQuest(quest, getSentence("Protection_Diversion2", DataHandler.getRandomFromCategories(parent, "pnj/being/*"), actionGoto.getObjective(OBJECTIVE), actionDamage.getObjective(OBJECTIVE)), actionGoto, actionDamage);
+		Quest quest = new Quest(context, parent);
+		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "area/place/*"))));
+		Action actionDamage = new Action(quest, this.getClass(), depth, ActionType.DAMAGE, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, DataHandler.getRandomFromCategories(context, parent, "area/fortification/*"))), false);
+		return Quest.initQuest(quest, getSentence("Protection_Diversion2", DataHandler.getRandomFromCategories(context, parent, "pnj/being/*"), actionGoto.getObjective(OBJECTIVE), actionDamage.getObjective(OBJECTIVE)), actionGoto, actionDamage);
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.actionexecutors.protection;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
@@ -18,12 +19,12 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.OBJECTIVE;
 public class ProtectionGuardActionExecutor implements ActionExecutor
 {
 	@Override
-	public Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		Quest quest = new Quest(parent);
-		XMLStringObjectiveElement objectiveArea = DataHandler.getRandomFromCategories(parent, "area/place/*");
+		Quest quest = new Quest(context, parent);
+		XMLStringObjectiveElement objectiveArea = DataHandler.getRandomFromCategories(context, parent, "area/place/*");
 		Action actionGoto = new Action(quest, this.getClass(), depth, ActionType.GOTO, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, objectiveArea)));
-		Action actionDefend = new Action(quest, this.getClass(), depth, ActionType.DEFEND, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, pickRandom(objectiveArea, DataHandler.getRandomFromCategories(parent, "area/fortification/*")))), false);
+		Action actionDefend = new Action(quest, this.getClass(), depth, ActionType.DEFEND, buildObjective(objectives, new ObjectiveHelper(OBJECTIVE, pickRandom(context, objectiveArea, DataHandler.getRandomFromCategories(context, parent, "area/fortification/*")))), false);
 		return Quest.initQuest(quest, getSentence(actionDefend.getObjective(OBJECTIVE).isInPath("area/place/*") ? "Protection_Guard_1" : "Protection_Guard_2", objectiveArea, actionDefend.getObjective(OBJECTIVE)), actionGoto, actionDefend);
 	}
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package fr.polytech.di.questgenerator.enums;
 
-import fr.polytech.di.questgenerator.QuestGenerator;
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.actionexecutors.action.ActionCaptureActionExecutor;
 import fr.polytech.di.questgenerator.actionexecutors.action.ActionEpsilonActionExecutor;
 import fr.polytech.di.questgenerator.actionexecutors.action.ActionQuestActionExecutor;
@@ -21,7 +21,6 @@ import fr.polytech.di.questgenerator.objects.Quest;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
 import java.text.MessageFormat;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Each elementary action defining the quest.
@@ -31,7 +30,7 @@ import java.util.concurrent.ThreadLocalRandom;
 public enum ActionType
 {
 	NONE(0, ""),
-	CAPTURE(1, "Capture {0}", ActionCaptureActionExecutor.class),
+	CAPTURE(1, "Capture {0}", new ActionCaptureActionExecutor()),
 	DAMAGE(1, "Damage {0}"),
 	DEFEND(1, "Defend {0}"),
 	ESCORT(1, "Escort {0}"),
@@ -39,25 +38,33 @@ public enum ActionType
 	EXPERIMENT(1, "Experiment {0}"),
 	EXPLORE(1, "Explore {0}"),
 	GATHER(1, "Gather {0}"),
-	GET(2, "Get {0} from {1}", ActionEpsilonActionExecutor.class, ActionGetStealActionExecutor.class, ActionGetGatherActionExecutor.class, ActionGetExchangeActionExecutor.class),
+	GET(2, "Get {0} from {1}", new ActionEpsilonActionExecutor(), new ActionGetStealActionExecutor(), new ActionGetGatherActionExecutor(), new ActionGetExchangeActionExecutor()),
 	GIVE(2, "Give {0} to {1}"),
-	GOTO(1, "Go to {0}", ActionEpsilonActionExecutor.class, ActionGotoExploreActionExecutor.class, ActionGotoLearnActionExecutor.class),
+	GOTO(1, "Go to {0}", new ActionEpsilonActionExecutor(), new ActionGotoExploreActionExecutor(), new ActionGotoLearnActionExecutor()),
 	KILL(1, "Kill {0}"),
-	LEARN(1, "Learn where is {0}", ActionEpsilonActionExecutor.class, ActionLearnListenActionExecutor.class, ActionLearnReadActionListener.class, ActionLearnGiveActionExecutor.class),
+	LEARN(1, "Learn where is {0}", new ActionEpsilonActionExecutor(), new ActionLearnListenActionExecutor(), new ActionLearnReadActionListener(), new ActionLearnGiveActionExecutor()),
 	LISTEN(1, "Listen {0}"),
-	QUEST(1, "Complete quest for {0}", ActionQuestActionExecutor.class),
+	QUEST(1, "Complete quest for {0}", new ActionQuestActionExecutor()),
 	READ(1, "Read {0}"),
 	REPAIR(1, "Repair {0}"),
 	REPORT(1, "Report to {0}"),
-	SPY(1, "Spy {0}", ActionSpyActionExecutor.class),
-	STEAL(2, "Steal {0} from {1}", ActionStealStealthActionExecutor.class, ActionStealTakeActionExecutor.class),
+	SPY(1, "Spy {0}", new ActionSpyActionExecutor()),
+	STEAL(2, "Steal {0} from {1}", new ActionStealStealthActionExecutor(), new ActionStealTakeActionExecutor()),
 	STEALTH(1, "Stealth {0}"),
 	TAKE(2, "Take {0} from {1}"),
 	USE(2, "Use {0} on {1}");
 
+	private static final List<ObjectiveType> NO_EVENT = Collections.emptyList();
+	private static final List<ObjectiveType> OBJECTIVE_EVENT = Collections.singletonList(ObjectiveType.OBJECTIVE);
+	private static final List<ObjectiveType> EXCHANGE_EVENT = Collections.unmodifiableList(Arrays.asList(ObjectiveType.OBJ_GIVE, ObjectiveType.OBJ_GET, ObjectiveType.PNJ));
+	private static final List<ObjectiveType> GET_EVENT = Collections.unmodifiableList(Arrays.asList(ObjectiveType.OBJ_GET, ObjectiveType.LOC_OBJECTIVE));
+	private static final List<ObjectiveType> GIVE_EVENT = Collections.unmodifiableList(Arrays.asList(ObjectiveType.OBJ_GIVE, ObjectiveType.LOC_OBJECTIVE));
+	private static final List<ObjectiveType> TAKE_EVENT = Collections.unmodifiableList(Arrays.asList(ObjectiveType.OBJ_GET, ObjectiveType.PNJ));
+	private static final List<ObjectiveType> USE_EVENT = Collections.unmodifiableList(Arrays.asList(ObjectiveType.OBJ_USE, ObjectiveType.LOC_OBJECTIVE));
 	private final int params;
 	private final String sentence;
-	private final List<Class<? extends ActionExecutor>> actionExecutors;
+	private final ActionExecutor[] actionExecutors;
+	private final boolean epsilon;
 
 	/**
 	 * Constructor.
@@ -67,9 +74,7 @@ public enum ActionType
 	 */
 	ActionType(int params, String sentence)
 	{
-		this.params = params;
-		this.sentence = sentence;
-		this.actionExecutors = new ArrayList<>(0);
+		this(params, sentence, new ActionExecutor[0]);
 	}
 
 	/**
@@ -77,23 +82,24 @@ public enum ActionType
 	 *
 	 * @param params Number of objectives expected.
 	 * @param sentence The sentence describing the action.
-	 * @param actionExecutors The possible ActionExecutor(s) defining how the action could be splitted.
+	 * @param actionExecutors The possible ActionExecutor(s) defining how the action could be splitted. If present, the epsilon ActionExecutor must be the first one.
 	 */
-	@SafeVarargs
-	ActionType(int params, String sentence, Class<? extends ActionExecutor>... actionExecutors)
+	ActionType(int params, String sentence, ActionExecutor... actionExecutors)
 	{
 		this.params = params;
 		this.sentence = sentence;
-		this.actionExecutors = Arrays.asList(actionExecutors);
+		this.actionExecutors = actionExecutors;
+		this.epsilon = actionExecutors.length > 0 && actionExecutors[0] instanceof ActionEpsilonActionExecutor;
 	}
 
 	/**
 	 * Return the sentence of the action formatted with the objectives.
 	 *
 	 * @param objectives The objectives.
+	 * @param debug True to include the debug informations.
 	 * @return The formatted string.
 	 */
-	public String getAsString(Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public String getAsString(Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives, boolean debug)
 	{
 		if(!objectives.isPresent())
 			return this.sentence;
@@ -119,60 +125,96 @@ public enum ActionType
 			case SPY:
 			case QUEST:
 			case STEALTH:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJECTIVE));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJECTIVE, debug));
 				break;
 			case USE:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJ_USE), objectives.get().get(ObjectiveType.LOC_OBJECTIVE));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJ_USE, debug), getDisplayValue(objectives.get(), ObjectiveType.LOC_OBJECTIVE, debug));
 				break;
 			case EXCHANGE:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJ_GIVE), objectives.get().get(ObjectiveType.OBJ_GET), objectives.get().get(ObjectiveType.PNJ));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJ_GIVE, debug), getDisplayValue(objectives.get(), ObjectiveType.OBJ_GET, debug), getDisplayValue(objectives.get(), ObjectiveType.PNJ, debug));
 				break;
 			case GET:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJ_GET), objectives.get().get(ObjectiveType.LOC_OBJECTIVE));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJ_GET, debug), getDisplayValue(objectives.get(), ObjectiveType.LOC_OBJECTIVE, debug));
 				break;
 			case GIVE:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJ_GIVE), objectives.get().get(ObjectiveType.LOC_OBJECTIVE));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJ_GIVE, debug), getDisplayValue(objectives.get(), ObjectiveType.LOC_OBJECTIVE, debug));
 				break;
 			case STEAL:
 			case TAKE:
-				sentence = MessageFormat.format(this.sentence, objectives.get().get(ObjectiveType.OBJ_GET), objectives.get().get(ObjectiveType.PNJ));
+				sentence = MessageFormat.format(this.sentence, getDisplayValue(objectives.get(), ObjectiveType.OBJ_GET, debug), getDisplayValue(objectives.get(), ObjectiveType.PNJ, debug));
 				break;
 		}
-		return sentence + (QuestGenerator.getDebug() ? (" - " + objectives.get().get(ObjectiveType.CLASS)) : "");
+		return sentence + (debug ? (" - " + getDisplayValue(objectives.get(), ObjectiveType.CLASS, true)) : "");
+	}
+
+	/**
+	 * Get the value of an objective to display.
+	 *
+	 * @param objectives The objectives.
+	 * @param objectiveType The objective to display.
+	 * @param debug True to include the debug informations.
+	 * @return The value to display.
+	 */
+	private static Object getDisplayValue(HashMap<ObjectiveType, XMLStringObjectiveElement> objectives, ObjectiveType objectiveType, boolean debug)
+	{
+		XMLStringObjectiveElement element = objectives.get(objectiveType);
+		if(element == null || !debug)
+			return element;
+		return element.getDebugValue();
 	}
 
 	/**
 	 * Generate a subquest for the action.
 	 *
+	 * @param context The context of the subquest.
 	 * @param parent The parent action, null if none.
 	 * @param depth The depth of the subquest.
 	 * @param objectives The objectives for the subquest.
 	 * @return An Optional object containing the Quest.
 	 */
-	public Optional<Quest> genSubquest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Optional<Quest> genSubquest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		if(actionExecutors.isEmpty())
+		if(actionExecutors.length == 0)
 			return Optional.empty();
-		if(depth > QuestGenerator.getMaxDepth() && actionExecutors.contains(ActionEpsilonActionExecutor.class))
+		if(depth > context.getMaxDepth() && this.epsilon)
 			return Optional.empty();
-		Quest quest = Quest.getEpsilon(parent);
-		if(!actionExecutors.isEmpty())
-			try
-			{
-				ArrayList<Class<? extends ActionExecutor>> candidates = new ArrayList<>();
-				for(Class<? extends ActionExecutor> actionExecutor : this.actionExecutors)
-					if(actionExecutor.newInstance().isActionAllowed(objectives))
-						candidates.add(actionExecutor);
-				quest = getRandomActionExecutor(depth, candidates).newInstance().generateQuest(parent, depth + 1, objectives);
-			}
-			catch(InstantiationException | IllegalAccessException ignored)
-			{
-			}
+		ActionExecutor actionExecutor = getRandomActionExecutor(context, depth, objectives);
+		if(actionExecutor == null)
+			return Optional.empty();
+		Quest quest = actionExecutor.generateQuest(context, parent, depth + 1, objectives);
 		if(quest.isEmpty())
 			return Optional.empty();
 		return Optional.of(quest);
 	}
 
+	/**
+	 * Used to get the objectives given by the game event of this type, in the order of the parameters of the event. The first one is used to index the actions waiting for the event.
+	 *
+	 * @return The objective types, empty if no event completes this type of action.
+	 */
+	public List<ObjectiveType> getEventObjectives()
+	{
+		switch(this)
+		{
+			case NONE:
+			case QUEST:
+				return NO_EVENT;
+			case EXCHANGE:
+				return EXCHANGE_EVENT;
+			case GET:
+				return GET_EVENT;
+			case GIVE:
+				return GIVE_EVENT;
+			case STEAL:
+			case TAKE:
+				return TAKE_EVENT;
+			case USE:
+				return USE_EVENT;
+			default:
+				return OBJECTIVE_EVENT;
+		}
+	}
+
 	/**
 	 * Used to know if this Action is empty.
 	 *
@@ -184,17 +226,38 @@ public enum ActionType
 	}
 
 	/**
-	 * Used to get a random ActionExecutor. If an epsilon ActionExecutor is present, he will have more chances to be picked as we get closer to the max depth.
+	 * Used to get a random ActionExecutor among the ones allowed for the given objectives. If an epsilon ActionExecutor is present, he will have more chances to be picked as we get closer to the max depth.
 	 *
+	 * @param context The context of the subquest.
 	 * @param depth The depth of the Action.
-	 * @return A random ActionExecutor.
+	 * @param objectives The objectives for the subquest.
+	 * @return A random ActionExecutor, null if none is allowed.
 	 */
-	private Class<? extends ActionExecutor> getRandomActionExecutor(int depth, ArrayList<Class<? extends ActionExecutor>> executors)
+	private ActionExecutor getRandomActionExecutor(GeneratorContext context, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		if(!executors.contains(ActionEpsilonActionExecutor.class))
-			return executors.get(ThreadLocalRandom.current().nextInt(executors.size()));
-		if(Math.random() < (1 / executors.size()) + (depth / QuestGenerator.getMaxDepth()))
-			return ActionEpsilonActionExecutor.class;
-		return executors.get(1 + ThreadLocalRandom.current().nextInt(executors.size() - 1));
+		int allowed = 0;
+		int count = 0;
+		for(int i = 0; i < this.actionExecutors.length; i++)
+			if(this.actionExecutors[i].isActionAllowed(objectives))
+			{
+				allowed |= 1 << i;
+				count++;
+			}
+		if(count == 0)
+			return null;
+		int first = 0;
+		if(this.epsilon && (allowed & 1) != 0)
+		{
+			if(context.getRandom().nextDouble() < (1 / count) + (depth / context.getMaxDepth()))
+				return this.actionExecutors[0];
+			allowed &= ~1;
+			count--;
+			first = 1;
+		}
+		int picked = context.getRandom().nextInt(count);
+		for(int i = first; i < this.actionExecutors.length; i++)
+			if((allowed & (1 << i)) != 0 && picked-- == 0)
+				return this.actionExecutors[i];
+		return null;
 	}
 }
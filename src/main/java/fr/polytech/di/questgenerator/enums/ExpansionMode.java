@@ -0,0 +1,27 @@
+package fr.polytech.di.questgenerator.enums;
+
+/**
+ * The different ways the subquests of the actions are generated.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public enum ExpansionMode
+{
+	/**
+	 * The whole tree is generated with the quest.
+	 */
+	EAGER,
+	/**
+	 * The subquest of an action is generated the first time it is needed, when the action becomes doable or when the subquest is asked.
+	 */
+	LAZY,
+	/**
+	 * The whole tree is generated with the quest, breadth first and without recursion, so that the depth of the tree doesn't use stack.
+	 * When the budget of the generation is exhausted, the deepest actions become leaves.
+	 */
+	ITERATIVE,
+	/**
+	 * The whole tree is generated with the quest, the subtrees of sibling actions being generated in parallel by fork/join tasks while their remaining depth is above the parallel threshold of the context.
+	 */
+	PARALLEL
+}
@@ -1,6 +1,8 @@
 package fr.polytech.di.questgenerator.enums;
 
-import org.apache.commons.math3.distribution.EnumeratedIntegerDistribution;
+import fr.polytech.di.questgenerator.objects.AliasTable;
+import java.util.SplittableRandom;
+
 /**
  * The different motivations for the quests.
  * <p>
@@ -18,6 +20,8 @@ public enum Motivations
 	ABILITY(Resources.PROPERTIES.getPropertyString("MotivationsProbabilities", "ability")),
 	EQUIPMENT(Resources.PROPERTIES.getPropertyString("MotivationsProbabilities", "equipment"));
 
+	private static final Motivations[] motivations = values();
+	private static final AliasTable sampler;
 	private final double probability;
 
 	/**
@@ -43,19 +47,12 @@ public enum Motivations
 	/**
 	 * Get a random motivation, taking in account probabilities.
 	 *
+	 * @param random The source of randomness.
 	 * @return A random motivation.
 	 */
-	public static Motivations getRandom()
+	public static Motivations getRandom(SplittableRandom random)
 	{
-		int[] values = new int[Motivations.values().length];
-		double[] probabilities = new double[Motivations.values().length];
-		for(int i = 0; i < Motivations.values().length; i++)
-		{
-			values[i] = i;
-			probabilities[i] = Motivations.values()[i].getProbability();
-		}
-		EnumeratedIntegerDistribution dist = new EnumeratedIntegerDistribution(values, probabilities);
-		return Motivations.values()[dist.sample()];
+		return motivations[sampler.sample(random)];
 	}
 
 	/**
@@ -67,4 +64,15 @@ public enum Motivations
 	{
 		return probability;
 	}
+
+	/**
+	 * Compile the probabilities into an alias table.
+	 */
+	static
+	{
+		double[] probabilities = new double[motivations.length];
+		for(int i = 0; i < motivations.length; i++)
+			probabilities[i] = motivations[i].getProbability();
+		sampler = new AliasTable(probabilities);
+	}
 }
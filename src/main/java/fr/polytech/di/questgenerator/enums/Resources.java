@@ -1,6 +1,7 @@
 package fr.polytech.di.questgenerator.enums;
 
 import fr.polytech.di.questgenerator.jfx.MainFrame;
+import fr.polytech.di.questgenerator.objects.CatalogSnapshot;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.WritableImage;
 import javax.imageio.ImageIO;
@@ -9,9 +10,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Enum of the different resources available.
@@ -25,7 +28,7 @@ public enum Resources
 	JFX_IMAGE("jfx/images"),
 	PROPERTIES("properties");
 
-	private static final HashMap<String, Properties> properties = new HashMap<>();
+	private static final ConcurrentHashMap<String, Properties> properties = new ConcurrentHashMap<>();
 	private final String rootPath;
 
 	/**
@@ -109,20 +112,30 @@ public enum Resources
 	}
 
 	/**
-	 * Used to load a property file or get the reference of it if already created.
+	 * Used to load a property file or get the reference of it if already created. The properties are taken from the catalog snapshot if it is up to date.
+	 * This method can be called concurrently, each file being loaded only once.
 	 *
 	 * @param path The path of the file.
 	 * @return The properties object.
 	 *
-	 * @throws IOException If the file couldn't be read.
+	 * @throws UncheckedIOException If the file couldn't be read.
 	 */
-	private Properties getProperties(String path) throws IOException
+	private Properties getProperties(String path)
 	{
-		if(properties.containsKey(path))
-			return properties.get(path);
-		Properties prop = new Properties();
-		prop.load(new File("./", path + ".properties").exists() ? new InputStreamReader(new FileInputStream(new File("./", path + ".properties")), "UTF-8") : new InputStreamReader(getResource(path + ".properties").openStream(), "UTF-8"));
-		properties.put(path, prop);
-		return prop;
+		return properties.computeIfAbsent(path, key -> {
+			Optional<Properties> snapshot = CatalogSnapshot.getDefault().map(s -> s.getProperties(key));
+			if(snapshot.isPresent())
+				return snapshot.get();
+			Properties prop = new Properties();
+			try(InputStreamReader reader = new File("./", key + ".properties").exists() ? new InputStreamReader(new FileInputStream(new File("./", key + ".properties")), "UTF-8") : new InputStreamReader(getResource(key + ".properties").openStream(), "UTF-8"))
+			{
+				prop.load(reader);
+			}
+			catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+			return prop;
+		});
 	}
 }
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.enums;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.actionexecutors.ability.*;
 import fr.polytech.di.questgenerator.actionexecutors.comfort.ComfortKillActionExecutor;
 import fr.polytech.di.questgenerator.actionexecutors.comfort.ComfortObtainActionExecutor;
@@ -23,12 +24,14 @@ import fr.polytech.di.questgenerator.actionexecutors.wealth.WealthMakeActionExec
 import fr.polytech.di.questgenerator.actionexecutors.wealth.WealthStealActionExecutor;
 import fr.polytech.di.questgenerator.interfaces.ActionExecutor;
 import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.AliasTable;
 import fr.polytech.di.questgenerator.objects.Quest;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 /**
  * Strategies used for the beginning of a quest.
@@ -37,58 +40,62 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public enum Strategies
 {
-	KNOWLEDGE_DELIVER(Motivations.KNOWLEDGE, KnowledgeDeliverActionExecutor.class, true),
-	KNOWLEDGE_SPY(Motivations.KNOWLEDGE, KnowledgeSpyActionExecutor.class),
-	KNOWLEDGE_INTERVIEW(Motivations.KNOWLEDGE, KnowledgeInterviewActionExecutor.class, true),
-	KNOWLEDGE_USE_ITEM(Motivations.KNOWLEDGE, KnowledgeUseItemActionExecutor.class),
-
-	COMFORT_OBTAIN(Motivations.COMFORT, ComfortObtainActionExecutor.class, true),
-	COMFORT_KILL(Motivations.COMFORT, ComfortKillActionExecutor.class, true),
-
-	REPUTATION_OBTAIN(Motivations.REPUTATION, ReputationObtainActionExecutor.class, true),
-	REPUTATION_KILL(Motivations.REPUTATION, ReputationKillActionExecutor.class, true),
-	REPUTATION_VISIT(Motivations.REPUTATION, ReputationVisitActionExecutor.class, true),
-
-	SERENITY_REVENGE(Motivations.SERENITY, SerenityRevengeActionExecutor.class),
-	SERENITY_CAPTURE_1(Motivations.SERENITY, SerenityCapture1ActionExecutor.class),
-	SERENITY_CAPTURE_2(Motivations.SERENITY, SerenityCapture2ActionExecutor.class),
-	SERENITY_CHECK_1(Motivations.SERENITY, SerenityCheck1ActionExecutor.class, true),
-	SERENITY_CHECK_2(Motivations.SERENITY, SerenityCheck2ActionExecutor.class, true),
-	SERENITY_RECOVER(Motivations.SERENITY, SerenityRecoverActionExecutor.class, true),
-	SERENITY_RESCUE(Motivations.SERENITY, SerenityRescueActionExecutor.class, true),
-
-	PROTECTION_ATTACK(Motivations.PROTECTION, ProtectionAttackActionExecutor.class, true),
-	PROTECTION_TREAT_1(Motivations.PROTECTION, ProtectionTreat1ActionExecutor.class),
-	PROTECTION_TREAT_2(Motivations.PROTECTION, ProtectionTreat2ActionExecutor.class),
-	PROTECTION_DIVERSION_1(Motivations.PROTECTION, ProtectionDiversion1ActionExecutor.class),
-	PROTECTION_DIVERSION_2(Motivations.PROTECTION, ProtectionDiversion2ActionExecutor.class),
-	PROTECTION_ASSEMBLE(Motivations.PROTECTION, ProtectionAssembleActionExecutor.class),
-	PROTECTION_GUARD(Motivations.PROTECTION, ProtectionGuardActionExecutor.class),
-
-	CONQUEST_ATTACK(Motivations.CONQUEST, ConquestAttackActionExecutor.class),
-	CONQUEST_STEAL(Motivations.CONQUEST, ConquestStealActionExecutor.class, true),
-
-	WEALTH_GATHER(Motivations.WEALTH, WealthGatherActionExecutor.class),
-	WEALTH_STEAL(Motivations.WEALTH, WealthStealActionExecutor.class),
-	WEALTH_MAKE(Motivations.WEALTH, WealthMakeActionExecutor.class),
-
-	ABILITY_ASSEMBLE(Motivations.ABILITY, AbilityAssembleActionExecutor.class),
-	ABILITY_OBTAIN(Motivations.ABILITY, AbilityObtainActionExecutor.class),
-	ABILITY_USE(Motivations.ABILITY, AbilityUseActionExecutor.class),
-	ABILITY_PRACTICE_COMBAT(Motivations.ABILITY, AbilityPracticeCombatActionExecutor.class),
-	ABILITY_PRACTICE_SKILL(Motivations.ABILITY, AbilityPracticeSkillActionExecutor.class),
-	ABILITY_RESEARCH_1(Motivations.ABILITY, AbilityResearch1ActionExecutor.class),
-	ABILITY_RESEARCH_2(Motivations.ABILITY, AbilityResearch2ActionExecutor.class),
-
-	EQUIPMENT_ASSEMBLE(Motivations.EQUIPMENT, EquipmentAssembleActionExecutor.class),
-	EQUIPMENT_DELIVER(Motivations.EQUIPMENT, EquipmentDeliverActionExecutor.class),
-	EQUIPMENT_STEAL(Motivations.EQUIPMENT, EquipmentStealActionExecutor.class),
-	EQUIPMENT_TRADE(Motivations.EQUIPMENT, EquipmentTradeActionExecutor.class);
-
-	private final static ArrayList<Strategies> subquestAllowedStrategies = new ArrayList<>();
+	KNOWLEDGE_DELIVER(Motivations.KNOWLEDGE, new KnowledgeDeliverActionExecutor(), true),
+	KNOWLEDGE_SPY(Motivations.KNOWLEDGE, new KnowledgeSpyActionExecutor()),
+	KNOWLEDGE_INTERVIEW(Motivations.KNOWLEDGE, new KnowledgeInterviewActionExecutor(), true),
+	KNOWLEDGE_USE_ITEM(Motivations.KNOWLEDGE, new KnowledgeUseItemActionExecutor()),
+
+	COMFORT_OBTAIN(Motivations.COMFORT, new ComfortObtainActionExecutor(), true),
+	COMFORT_KILL(Motivations.COMFORT, new ComfortKillActionExecutor(), true),
+
+	REPUTATION_OBTAIN(Motivations.REPUTATION, new ReputationObtainActionExecutor(), true),
+	REPUTATION_KILL(Motivations.REPUTATION, new ReputationKillActionExecutor(), true),
+	REPUTATION_VISIT(Motivations.REPUTATION, new ReputationVisitActionExecutor(), true),
+
+	SERENITY_REVENGE(Motivations.SERENITY, new SerenityRevengeActionExecutor()),
+	SERENITY_CAPTURE_1(Motivations.SERENITY, new SerenityCapture1ActionExecutor()),
+	SERENITY_CAPTURE_2(Motivations.SERENITY, new SerenityCapture2ActionExecutor()),
+	SERENITY_CHECK_1(Motivations.SERENITY, new SerenityCheck1ActionExecutor(), true),
+	SERENITY_CHECK_2(Motivations.SERENITY, new SerenityCheck2ActionExecutor(), true),
+	SERENITY_RECOVER(Motivations.SERENITY, new SerenityRecoverActionExecutor(), true),
+	SERENITY_RESCUE(Motivations.SERENITY, new SerenityRescueActionExecutor(), true),
+
+	PROTECTION_ATTACK(Motivations.PROTECTION, new ProtectionAttackActionExecutor(), true),
+	PROTECTION_TREAT_1(Motivations.PROTECTION, new ProtectionTreat1ActionExecutor()),
+	PROTECTION_TREAT_2(Motivations.PROTECTION, new ProtectionTreat2ActionExecutor()),
+	PROTECTION_DIVERSION_1(Motivations.PROTECTION, new ProtectionDiversion1ActionExecutor()),
+	PROTECTION_DIVERSION_2(Motivations.PROTECTION, new ProtectionDiversion2ActionExecutor()),
+	PROTECTION_ASSEMBLE(Motivations.PROTECTION, new ProtectionAssembleActionExecutor()),
+	PROTECTION_GUARD(Motivations.PROTECTION, new ProtectionGuardActionExecutor()),
+
+	CONQUEST_ATTACK(Motivations.CONQUEST, new ConquestAttackActionExecutor()),
+	CONQUEST_STEAL(Motivations.CONQUEST, new ConquestStealActionExecutor(), true),
+
+	WEALTH_GATHER(Motivations.WEALTH, new WealthGatherActionExecutor()),
+	WEALTH_STEAL(Motivations.WEALTH, new WealthStealActionExecutor()),
+	WEALTH_MAKE(Motivations.WEALTH, new WealthMakeActionExecutor()),
+
+	ABILITY_ASSEMBLE(Motivations.ABILITY, new AbilityAssembleActionExecutor()),
+	ABILITY_OBTAIN(Motivations.ABILITY, new AbilityObtainActionExecutor()),
+	ABILITY_USE(Motivations.ABILITY, new AbilityUseActionExecutor()),
+	ABILITY_PRACTICE_COMBAT(Motivations.ABILITY, new AbilityPracticeCombatActionExecutor()),
+	ABILITY_PRACTICE_SKILL(Motivations.ABILITY, new AbilityPracticeSkillActionExecutor()),
+	ABILITY_RESEARCH_1(Motivations.ABILITY, new AbilityResearch1ActionExecutor()),
+	ABILITY_RESEARCH_2(Motivations.ABILITY, new AbilityResearch2ActionExecutor()),
+
+	EQUIPMENT_ASSEMBLE(Motivations.EQUIPMENT, new EquipmentAssembleActionExecutor()),
+	EQUIPMENT_DELIVER(Motivations.EQUIPMENT, new EquipmentDeliverActionExecutor()),
+	EQUIPMENT_STEAL(Motivations.EQUIPMENT, new EquipmentStealActionExecutor()),
+	EQUIPMENT_TRADE(Motivations.EQUIPMENT, new EquipmentTradeActionExecutor());
+
+	private final static Strategies[] subquestAllowedStrategies;
+	private final static AliasTable subquestAllowedSampler;
+	private final static Strategies[][] motivationStrategies;
+	private final static AliasTable[] motivationSamplers;
 	private final Motivations motivation;
-	private final Class<? extends ActionExecutor> actionExecutor;
+	private final ActionExecutor actionExecutor;
 	private final boolean subquestAllowed;
+	private final double weight;
 
 	/**
 	 * Constructor.
@@ -96,7 +103,7 @@ public enum Strategies
 	 * @param motivation The motivation in which the Strategy is present.
 	 * @param actionExecutor The ActionExecutor defining how the quest will start.
 	 */
-	Strategies(Motivations motivation, Class<? extends ActionExecutor> actionExecutor)
+	Strategies(Motivations motivation, ActionExecutor actionExecutor)
 	{
 		this(motivation, actionExecutor, false);
 	}
@@ -108,76 +115,72 @@ public enum Strategies
 	 * @param actionExecutor The ActionExecutor defining how the quest will start.
 	 * @param subquestAllowed Determines if the strategy can be used to generate a subquest.
 	 */
-	Strategies(Motivations motivation, Class<? extends ActionExecutor> actionExecutor, boolean subquestAllowed)
+	Strategies(Motivations motivation, ActionExecutor actionExecutor, boolean subquestAllowed)
 	{
 		this.motivation = motivation;
 		this.actionExecutor = actionExecutor;
 		this.subquestAllowed = subquestAllowed;
+		String weight = Resources.PROPERTIES.getPropertyString("StrategiesProbabilities", this.name().toLowerCase());
+		this.weight = weight.isEmpty() ? 1 : Double.parseDouble(weight);
 	}
 
 	/**
 	 * Pick a random Strategy.
 	 *
+	 * @param random The source of randomness.
 	 * @return A random Strategy.
 	 */
-	public static Strategies getRandom()
+	public static Strategies getRandom(SplittableRandom random)
 	{
-		return getByMotivation(Motivations.getRandom());
+		return getByMotivation(random, Motivations.getRandom(random));
 	}
 
 	/**
 	 * Pick a random Strategy among the ones allowed for subquests.
 	 *
+	 * @param random The source of randomness.
 	 * @return A random Strategy.
 	 */
-	public static Strategies getRandomSubquest()
+	public static Strategies getRandomSubquest(SplittableRandom random)
 	{
-		return subquestAllowedStrategies.get(ThreadLocalRandom.current().nextInt(subquestAllowedStrategies.size()));
+		return subquestAllowedStrategies[subquestAllowedSampler.sample(random)];
 	}
 
 	/**
 	 * Pick a random Strategy for a given Motivation.
 	 *
+	 * @param random The source of randomness.
 	 * @param motivation The Motivation the Strategy picked needs to be.
 	 * @return A random Strategy with the wanted Motivation.
 	 */
-	public static Strategies getByMotivation(Motivations motivation)
+	public static Strategies getByMotivation(SplittableRandom random, Motivations motivation)
 	{
-		ArrayList<Strategies> candidates = new ArrayList<>();
-		for(Strategies strategy : Strategies.values())
-			if(strategy.getMotivation() == motivation)
-				candidates.add(strategy);
-		return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+		return motivationStrategies[motivation.ordinal()][motivationSamplers[motivation.ordinal()].sample(random)];
 	}
 
 	/**
 	 * Create a quest.
 	 *
+	 * @param context The context of the generation.
 	 * @return A Quest.
 	 */
-	public Quest createQuest()
+	public Quest createQuest(GeneratorContext context)
 	{
-		return createQuest(null, 0, Optional.empty());
+		return createQuest(context, null, 0, Optional.empty());
 	}
 
 	/**
 	 * Create a quest.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent action, null if none.
 	 * @param depth The depth of the quest.
 	 * @param objectives The objectives for the quest.
 	 * @return A quest.
 	 */
-	public Quest createQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
+	public Quest createQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives)
 	{
-		try
-		{
-			return actionExecutor.newInstance().generateQuest(parent, depth, objectives);
-		}
-		catch(InstantiationException | IllegalAccessException ignored)
-		{
-		}
-		return null;
+		return this.actionExecutor.generateQuest(context, parent, depth, objectives);
 	}
 
 	/**
@@ -190,6 +193,16 @@ public enum Strategies
 		return this.motivation;
 	}
 
+	/**
+	 * Get the weight of the Strategy among the ones of its Motivation.
+	 *
+	 * @return The weight.
+	 */
+	public double getWeight()
+	{
+		return this.weight;
+	}
+
 	/**
 	 * Used to know if that strategy is allowed to be picked to generate subquests.
 	 *
@@ -200,10 +213,41 @@ public enum Strategies
 		return this.subquestAllowed;
 	}
 
+	/**
+	 * Group the strategies and compile their weights into alias tables.
+	 */
 	static
 	{
+		ArrayList<Strategies> subquestAllowed = new ArrayList<>();
 		for(Strategies strategy : Strategies.values())
 			if(strategy.isSubquestAllowed())
-				subquestAllowedStrategies.add(strategy);
+				subquestAllowed.add(strategy);
+		subquestAllowedStrategies = subquestAllowed.toArray(new Strategies[subquestAllowed.size()]);
+		subquestAllowedSampler = buildSampler(subquestAllowed);
+		motivationStrategies = new Strategies[Motivations.values().length][];
+		motivationSamplers = new AliasTable[Motivations.values().length];
+		for(Motivations motivation : Motivations.values())
+		{
+			ArrayList<Strategies> candidates = new ArrayList<>();
+			for(Strategies strategy : Strategies.values())
+				if(strategy.getMotivation() == motivation)
+					candidates.add(strategy);
+			motivationStrategies[motivation.ordinal()] = candidates.toArray(new Strategies[candidates.size()]);
+			motivationSamplers[motivation.ordinal()] = buildSampler(candidates);
+		}
+	}
+
+	/**
+	 * Build an alias table from the weights of the given strategies.
+	 *
+	 * @param strategies The strategies.
+	 * @return The alias table.
+	 */
+	private static AliasTable buildSampler(List<Strategies> strategies)
+	{
+		double[] weights = new double[strategies.size()];
+		for(int i = 0; i < weights.length; i++)
+			weights[i] = strategies.get(i).getWeight();
+		return new AliasTable(weights);
 	}
 }
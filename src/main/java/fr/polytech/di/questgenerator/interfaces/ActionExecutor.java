@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.interfaces;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.enums.Resources;
 import fr.polytech.di.questgenerator.objects.Action;
@@ -9,10 +10,10 @@ import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
 import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Interface for the classes that define how a Quest should be generated.
+ * A single instance of each implementation is shared by {@link fr.polytech.di.questgenerator.enums.ActionType} and {@link fr.polytech.di.questgenerator.enums.Strategies}, so implementations must be stateless.
  * <p>
  * Created by COUCHOUD Thomas & COLEAU Victor.
  */
@@ -21,12 +22,13 @@ public interface ActionExecutor
 	/**
 	 * Generate the quest.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent action of the quest, null if none.
 	 * @param depth The depth of the quest.
 	 * @param objectives The objectives for the quest.
 	 * @return The Quest.
 	 */
-	Quest generateQuest(Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives);
+	Quest generateQuest(GeneratorContext context, Action parent, int depth, Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives);
 
 	/**
 	 * Build a new objective HashMap.
@@ -58,12 +60,13 @@ public interface ActionExecutor
 	/**
 	 * Used to get a random element among a list of elements.
 	 *
+	 * @param context The context of the generation, giving the source of randomness.
 	 * @param elements The elements.
 	 * @return A random element from the list.
 	 */
-	default XMLStringObjectiveElement pickRandom(XMLStringObjectiveElement... elements)
+	default XMLStringObjectiveElement pickRandom(GeneratorContext context, XMLStringObjectiveElement... elements)
 	{
-		return elements[ThreadLocalRandom.current().nextInt(elements.length)];
+		return elements[context.getRandom().nextInt(elements.length)];
 	}
 
 	/**
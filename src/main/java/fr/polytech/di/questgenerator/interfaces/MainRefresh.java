@@ -11,4 +11,11 @@ public interface MainRefresh
 	 * The method that handle how to refresh the current node.
 	 */
 	void refresh();
+
+	/**
+	 * Used to know if the elements should be displayed with their debug informations.
+	 *
+	 * @return The debug status.
+	 */
+	boolean isDebug();
 }
@@ -0,0 +1,30 @@
+package fr.polytech.di.questgenerator.interfaces;
+
+import fr.polytech.di.questgenerator.QuestSessionManager;
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.Quest;
+
+/**
+ * Interface used to know what happened in the quests of all the players of a {@link QuestSessionManager}. After implementing this interface, you can use {@link QuestSessionManager#addSessionListener(SessionListener)} to get notified of the events.
+ * The methods are called by the thread of the shard of the player, they must not block.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public interface SessionListener
+{
+	/**
+	 * Called when an action of a player is completed.
+	 *
+	 * @param player The id of the player.
+	 * @param action The action completed.
+	 */
+	void actionDone(long player, Action action);
+
+	/**
+	 * Called when a quest of a player is done.
+	 *
+	 * @param player The id of the player.
+	 * @param quest The quest done.
+	 */
+	void questDone(long player, Quest quest);
+}
@@ -1,12 +1,15 @@
 package fr.polytech.di.questgenerator.jfx;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.QuestGenerator;
+import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.enums.Resources;
-import fr.polytech.di.questgenerator.interfaces.GameListener;
 import fr.polytech.di.questgenerator.interfaces.MainRefresh;
 import fr.polytech.di.questgenerator.jfx.contents.EventNode;
 import fr.polytech.di.questgenerator.jfx.contents.QuestNode;
-import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import fr.polytech.di.questgenerator.objects.CatalogWatcher;
+import fr.polytech.di.questgenerator.objects.DataHandler;
+import fr.polytech.di.questgenerator.objects.GameEvent;
 import javafx.application.Application;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.geometry.Insets;
@@ -25,9 +28,7 @@ import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.*;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
 
 /**
@@ -35,10 +36,12 @@ import java.util.Optional;
  * <p>
  * Created by COUCHOUD Thomas & COLEAU Victor.
  */
-public class MainFrame extends Application implements MainRefresh, GameListener
+public class MainFrame extends Application implements MainRefresh
 {
 	private static final String PARAM_DEV = "--dev", PARAM_DEBUG = "--debug";
 	private QuestNode quest;
+	private GeneratorContext context = new GeneratorContext();
+	private CatalogWatcher catalogWatcher;
 
 	/**
 	 * Startup function.
@@ -53,7 +56,15 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 	@Override
 	public void start(Stage primaryStage) throws Exception
 	{
-		QuestGenerator.setDebug(this.getParameters().getUnnamed().contains(PARAM_DEBUG));
+		this.context = this.context.withDebug(this.getParameters().getUnnamed().contains(PARAM_DEBUG));
+		try
+		{
+			this.catalogWatcher = DataHandler.watch();
+		}
+		catch(IOException e)
+		{
+			e.printStackTrace();
+		}
 		Scene scene = new Scene(createContent());
 		primaryStage.setTitle("Quest generator");
 		primaryStage.getIcons().add(new Image(Resources.JFX.getResource("icon64.png").toString()));
@@ -63,6 +74,13 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 		refresh();
 	}
 
+	@Override
+	public void stop() throws Exception
+	{
+		if(this.catalogWatcher != null)
+			this.catalogWatcher.close();
+	}
+
 	/**
 	 * Create the content of the scene.
 	 *
@@ -97,12 +115,12 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 		presentationMenuItem.setAccelerator(KeyCombination.keyCombination("Ctrl+P"));
 		MenuItem debugMenuItem = new MenuItem("Switch debug mode");
 		debugMenuItem.setOnAction(event -> {
-			QuestGenerator.setDebug(!QuestGenerator.getDebug());
+			this.context = this.context.withDebug(!this.context.isDebug());
 			this.quest.reloadQuest();
 		});
 		debugMenuItem.setAccelerator(KeyCombination.keyCombination("Ctrl+D"));
 		menuFile.getItems().addAll(reloadMenuItem, exportMenuItem, eventsMenuItem, presentationMenuItem, debugMenuItem);
-		quest = new QuestNode(this, !this.getParameters().getUnnamed().contains(PARAM_DEV), QuestGenerator.createNewRandomQuest(), 0);
+		quest = new QuestNode(this, !this.getParameters().getUnnamed().contains(PARAM_DEV), QuestGenerator.createNewRandomQuest(this.context), 0);
 		ScrollPane scroll = new ScrollPane(quest);
 		scroll.setMaxHeight(Double.MAX_VALUE);
 		scroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
@@ -113,15 +131,15 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 		Slider depthSlider = new Slider();
 		depthSlider.setMin(1);
 		depthSlider.setMax(20);
-		depthSlider.setValue(QuestGenerator.getMaxDepth());
+		depthSlider.setValue(this.context.getMaxDepth());
 		depthSlider.setShowTickLabels(true);
 		depthSlider.setShowTickMarks(true);
 		depthSlider.setMajorTickUnit(1);
 		depthSlider.setBlockIncrement(1);
 		depthSlider.setMinorTickCount(1);
 		depthSlider.valueProperty().addListener((ov, old_val, new_val) -> {
-			QuestGenerator.setMaxDepth(new_val.intValue());
-			depthSlider.adjustValue(QuestGenerator.getMaxDepth());
+			this.context = this.context.withMaxDepth(new_val.intValue());
+			depthSlider.adjustValue(this.context.getMaxDepth());
 		});
 		depthSlider.setMaxWidth(Double.MAX_VALUE);
 		Button reloadButton = new Button("Reload quest");
@@ -222,7 +240,7 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 	 */
 	private void reloadQuest()
 	{
-		quest.modifyQuest(QuestGenerator.createNewRandomQuest());
+		quest.modifyQuest(QuestGenerator.createNewRandomQuest(this.context));
 	}
 
 	/**
@@ -234,10 +252,9 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 	{
 		VBox pane = new VBox(5);
 		pane.setPadding(new Insets(2, 2, 2, 2));
-		List<Method> methods = Arrays.asList(GameListener.class.getMethods());
-		methods.sort((o1, o2) -> o1.getName().compareTo(o2.getName()));
-		for(Method method : methods)
-			pane.getChildren().add(new EventNode(this, method));
+		for(ActionType type : ActionType.values())
+			if(!type.getEventObjectives().isEmpty())
+				pane.getChildren().add(new EventNode(type, this::apply));
 		pane.setPrefWidth(250);
 		return pane;
 	}
@@ -249,198 +266,20 @@ public class MainFrame extends Application implements MainRefresh, GameListener
 	}
 
 	@Override
-	public boolean captureEvent(XMLStringObjectiveElement pnj)
-	{
-		boolean result = this.quest.getQuest().captureEvent(pnj);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean damageEvent(XMLStringObjectiveElement target)
-	{
-		boolean result = this.quest.getQuest().damageEvent(target);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean defendEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().defendEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean escortEvent(XMLStringObjectiveElement pnj)
-	{
-		boolean result = this.quest.getQuest().escortEvent(pnj);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean exchangeEvent(XMLStringObjectiveElement objectGive, XMLStringObjectiveElement objectGet, XMLStringObjectiveElement to)
-	{
-		boolean result = this.quest.getQuest().exchangeEvent(objectGive, objectGet, to);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean experimentEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().experimentEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean exploreEvent(XMLStringObjectiveElement area)
+	public boolean isDebug()
 	{
-		boolean result = this.quest.getQuest().exploreEvent(area);
-		if(result)
-			refresh();
-		return result;
+		return this.context.isDebug();
 	}
 
-	@Override
-	public boolean gatherEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().gatherEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean getEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
-	{
-		boolean result = this.quest.getQuest().getEvent(object, from);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean giveEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement to)
-	{
-		boolean result = this.quest.getQuest().giveEvent(object, to);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean gotoEvent(XMLStringObjectiveElement area)
-	{
-		boolean result = this.quest.getQuest().gotoEvent(area);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean killEvent(XMLStringObjectiveElement pnj)
-	{
-		boolean result = this.quest.getQuest().killEvent(pnj);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean learnEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().learnEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean listenEvent(XMLStringObjectiveElement pnj)
-	{
-		boolean result = this.quest.getQuest().listenEvent(pnj);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean readEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().readEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean repairEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().repairEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean reportEvent(XMLStringObjectiveElement to)
-	{
-		boolean result = this.quest.getQuest().reportEvent(to);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean spyEvent(XMLStringObjectiveElement on)
-	{
-		boolean result = this.quest.getQuest().spyEvent(on);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean stealEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
-	{
-		boolean result = this.quest.getQuest().stealEvent(object, from);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean stealthEvent(XMLStringObjectiveElement object)
-	{
-		boolean result = this.quest.getQuest().stealthEvent(object);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean takeEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
-	{
-		boolean result = this.quest.getQuest().takeEvent(object, from);
-		if(result)
-			refresh();
-		return result;
-	}
-
-	@Override
-	public boolean useEvent(XMLStringObjectiveElement used, XMLStringObjectiveElement on)
+	/**
+	 * Give an event to the displayed quest, and refresh it if it updated the progression.
+	 *
+	 * @param event The event.
+	 * @return True if the event updated the progression, false if not.
+	 */
+	private boolean apply(GameEvent event)
 	{
-		boolean result = this.quest.getQuest().useEvent(used, on);
+		boolean result = !this.quest.getQuest().apply(Collections.singletonList(event)).isEmpty();
 		if(result)
 			refresh();
 		return result;
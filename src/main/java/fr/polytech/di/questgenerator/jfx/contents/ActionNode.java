@@ -99,7 +99,7 @@ public class ActionNode extends HBox
 	 */
 	private Label genText(Action action)
 	{
-		Label text = new Label(action.getAsString());
+		Label text = new Label(action.getAsString(mainRefresh.isDebug()));
 		text.setWrapText(true);
 		text.setOnMouseReleased(event -> switchSubquestStatus());
 		text.setFont(FONT);
@@ -1,16 +1,16 @@
 package fr.polytech.di.questgenerator.jfx.contents;
 
-import fr.polytech.di.questgenerator.interfaces.GameListener;
+import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.objects.DataHandler;
+import fr.polytech.di.questgenerator.objects.GameEvent;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
 import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceDialog;
 import javafx.scene.text.TextAlignment;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Button to be used in the events frame.
@@ -22,39 +22,29 @@ public class EventNode extends Button
 	/**
 	 * Constructor.
 	 *
-	 * @param gameListener The gamelistener to which we'll send the events.
-	 * @param method The method we are simulating.
+	 * @param type The type of the event we are simulating.
+	 * @param listener The listener to which we'll send the events.
 	 */
-	public EventNode(GameListener gameListener, Method method)
+	public EventNode(ActionType type, Consumer<GameEvent> listener)
 	{
-		super(method.getName());
+		super(type.name().toLowerCase() + "Event");
 		this.setTextAlignment(TextAlignment.CENTER);
 		this.setMaxWidth(Double.MAX_VALUE);
 		this.setOnMouseReleased(event -> {
-			try
+			List<ObjectiveType> objectiveTypes = type.getEventObjectives();
+			XMLStringObjectiveElement[] objectives = new XMLStringObjectiveElement[objectiveTypes.size()];
+			for(int i = 0; i < objectives.length; i++)
 			{
-				ArrayList<Object> args = new ArrayList<>();
-				for(Parameter param : method.getParameters())
-				{
-					ChoiceDialog<XMLStringObjectiveElement> dialog = new ChoiceDialog<>(null, DataHandler.getAllSorted());
-					dialog.setTitle("Parameter " + param.getName());
-					dialog.setHeaderText("Parameter " + param.getName());
-					dialog.setContentText("Select value to send");
-					Optional<XMLStringObjectiveElement> value = dialog.showAndWait();
-					if(!value.isPresent())
-						return;
-					args.add(value.get());
-				}
-				method.invoke(gameListener, args.toArray());
-			}
-			catch(IllegalAccessException e)
-			{
-				e.printStackTrace();
-			}
-			catch(InvocationTargetException e)
-			{
-				e.getTargetException().printStackTrace();
+				ChoiceDialog<XMLStringObjectiveElement> dialog = new ChoiceDialog<>(null, DataHandler.getAllSorted());
+				dialog.setTitle("Parameter " + objectiveTypes.get(i).name());
+				dialog.setHeaderText("Parameter " + objectiveTypes.get(i).name());
+				dialog.setContentText("Select value to send");
+				Optional<XMLStringObjectiveElement> value = dialog.showAndWait();
+				if(!value.isPresent())
+					return;
+				objectives[i] = value.get();
 			}
+			listener.accept(new GameEvent(type, objectives));
 		});
 	}
 }
@@ -1,6 +1,8 @@
 package fr.polytech.di.questgenerator.objects;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ExpansionMode;
 import fr.polytech.di.questgenerator.enums.ObjectiveType;
 import fr.polytech.di.questgenerator.interfaces.GameListener;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
@@ -17,13 +19,17 @@ import static fr.polytech.di.questgenerator.enums.ObjectiveType.*;
  */
 public class Action implements GameListener
 {
+	private static final XMLStringObjectiveElement MISSING_OBJECTIVE = new XMLStringObjectiveElement("ERR", "ERR");
 	private final ActionType actionType;
 	private final Optional<HashMap<ObjectiveType, XMLStringObjectiveElement>> objectives;
-	private final Optional<Quest> subquest;
+	private volatile Optional<Quest> subquest;
+	private GeneratorContext subquestContext;
 	private final boolean splittable;
 	private final int depth;
 	private final Quest parentQuest;
+	private final ObjectiveIdSet usedObjectiveIds;
 	private boolean done;
+	private boolean completed;
 
 	/**
 	 * Constructor.
@@ -115,30 +121,66 @@ public class Action implements GameListener
 		this.objectives = objectives;
 		this.splittable = splittable;
 		this.done = false;
-		this.subquest = this.genSubquest(depth);
+		ObjectiveIdSet usedObjectiveIds = parentQuest.getUsedObjectiveIds();
+		for(XMLStringObjectiveElement objective : objectives.get().values())
+			if(parentQuest.getContext().getCatalog().contains(objective))
+				usedObjectiveIds = usedObjectiveIds.with(objective.getId());
+		this.usedObjectiveIds = usedObjectiveIds;
+		GeneratorContext context = parentQuest.getContext().split();
+		context.getBudget().consume();
+		if(context.getExpansionMode() != ExpansionMode.EAGER && this.splittable && !this.actionType.isEmpty())
+			this.subquestContext = context;
+		else
+			this.subquest = this.genSubquest(context, depth);
+		this.completed = this.isCompleted();
 	}
 
 	/**
-	 * Generate the subquest for this actionType.
+	 * Generate the subquest for this actionType. If the budget of the generation is exhausted, this action stays a leaf.
 	 *
+	 * @param context The context of the subquest, split from the parent quest's one so that each action has its own source of randomness.
 	 * @param depth The depth of the subquest.
 	 * @return The quest.
 	 */
-	private Optional<Quest> genSubquest(int depth)
+	private Optional<Quest> genSubquest(GeneratorContext context, int depth)
 	{
-		if(!this.splittable || this.actionType.isEmpty())
+		if(!this.splittable || this.actionType.isEmpty() || context.getBudget().isExhausted())
 			return Optional.empty();
-		return actionType.genSubquest(this, depth, this.objectives);
+		return actionType.genSubquest(context, this, depth, this.objectives);
 	}
 
 	/**
-	 * Returns the subquest of this actionType.
+	 * Returns the subquest of this actionType, generating it if it hasn't been yet.
+	 * An action marked as done before its subquest has been generated never gets one, so that it stays done.
 	 *
 	 * @return The subquest.
 	 */
 	public Optional<Quest> getSubquest()
 	{
-		return this.subquest;
+		Optional<Quest> subquest = this.subquest;
+		if(subquest == null)
+			synchronized(this)
+			{
+				subquest = this.subquest;
+				if(subquest == null)
+				{
+					subquest = this.done ? Optional.empty() : this.genSubquest(this.subquestContext, this.depth);
+					this.subquestContext = null;
+					this.subquest = subquest;
+					this.updateState();
+				}
+			}
+		return subquest;
+	}
+
+	/**
+	 * Used to know if the subquest of this action has been generated.
+	 *
+	 * @return True if generated (or if this action can't have one), false if not.
+	 */
+	public boolean isExpanded()
+	{
+		return this.subquest != null;
 	}
 
 	/**
@@ -148,7 +190,18 @@ public class Action implements GameListener
 	 */
 	public String getAsString()
 	{
-		return this.actionType.getAsString(objectives);
+		return getAsString(this.parentQuest.getContext().isDebug());
+	}
+
+	/**
+	 * Used to get the formatted sentence describing this Action.
+	 *
+	 * @param debug True to include the debug informations.
+	 * @return The actionType description.
+	 */
+	public String getAsString(boolean debug)
+	{
+		return this.actionType.getAsString(objectives, debug);
 	}
 
 	@Override
@@ -186,22 +239,47 @@ public class Action implements GameListener
 	public XMLStringObjectiveElement getObjective(ObjectiveType objective)
 	{
 		if(!objectives.isPresent() || !objectives.get().containsKey(objective))
-			return new XMLStringObjectiveElement("ERR", "ERR");
+			return MISSING_OBJECTIVE;
 		return objectives.get().get(objective);
 	}
 
 	/**
 	 * Used to know if that action is marked as done.
+	 * The state is kept up to date by the action and its subquest, the subquest isn't generated if it hasn't been yet.
 	 *
 	 * @return True if done, false if not.
 	 */
 	public boolean isDone()
 	{
-		if(this.subquest.isPresent())
-			return this.subquest.get().isDone();
+		return this.completed;
+	}
+
+	/**
+	 * Used to compute if that action is done: if it has a subquest, when its subquest is done, else when it has been marked as done.
+	 *
+	 * @return True if done, false if not.
+	 */
+	private boolean isCompleted()
+	{
+		Optional<Quest> subquest = this.subquest;
+		if(subquest != null && subquest.isPresent())
+			return subquest.get().isDone();
 		return this.done;
 	}
 
+	/**
+	 * Update the done state of this action after it or its subquest has changed, and give the change to the parent quest.
+	 */
+	synchronized void updateState()
+	{
+		boolean completed = this.isCompleted();
+		if(completed == this.completed)
+			return;
+		this.completed = completed;
+		if(this.getParentQuest() != null)
+			this.getParentQuest().actionStateChanged(this);
+	}
+
 	/**
 	 * Set the value of the done state.
 	 *
@@ -209,7 +287,11 @@ public class Action implements GameListener
 	 */
 	public void setDone(boolean done)
 	{
-		this.done = done;
+		synchronized(this)
+		{
+			this.done = done;
+			updateState();
+		}
 		notifyActionDone(this);
 	}
 
@@ -240,7 +322,7 @@ public class Action implements GameListener
 	 */
 	public Action getActionToDo()
 	{
-		return this.subquest.isPresent() ? this.subquest.get().getActionToDo() : this;
+		return this.getSubquest().isPresent() ? this.getSubquest().get().getActionToDo() : this;
 	}
 
 	/**
@@ -275,14 +357,40 @@ public class Action implements GameListener
 		return this.getObjective(objectiveType).is(objective);
 	}
 
-	@Override
-	public boolean captureEvent(XMLStringObjectiveElement pnj)
+	/**
+	 * Used to know if a game event completes this action, not taking into account its state.
+	 *
+	 * @param type The type of the event.
+	 * @param values The objectives of the event, in the order given by the ActionType.
+	 * @return True if the event matches the type and the objectives of this action, false if not.
+	 */
+	boolean matchesEvent(ActionType type, XMLStringObjectiveElement... values)
 	{
-		if(this.isDone() || !isDoable())
+		if(this.actionType != type)
+			return false;
+		List<ObjectiveType> objectiveTypes = type.getEventObjectives();
+		if(objectiveTypes.isEmpty() || values.length != objectiveTypes.size())
 			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().captureEvent(pnj);
-		if(this.actionType == CAPTURE && isCorrectObjective(OBJECTIVE, pnj))
+		for(int i = 0; i < values.length; i++)
+			if(!isCorrectObjective(objectiveTypes.get(i), values[i]))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Give a game event to this action, or to its subquest if present.
+	 *
+	 * @param type The type of the event.
+	 * @param values The objectives of the event, in the order given by the ActionType.
+	 * @return True if an action has been done, false if not.
+	 */
+	private boolean handleEvent(ActionType type, XMLStringObjectiveElement... values)
+	{
+		if(!isDoable() || this.isDone())
+			return false;
+		if(this.getSubquest().isPresent())
+			return this.getSubquest().get().handleEvent(type, values);
+		if(matchesEvent(type, values))
 		{
 			setDone(true);
 			return true;
@@ -290,319 +398,136 @@ public class Action implements GameListener
 		return false;
 	}
 
+	@Override
+	public boolean captureEvent(XMLStringObjectiveElement pnj)
+	{
+		return handleEvent(CAPTURE, pnj);
+	}
+
 	@Override
 	public boolean damageEvent(XMLStringObjectiveElement target)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().damageEvent(target);
-		if(this.actionType == DAMAGE && isCorrectObjective(OBJECTIVE, target))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(DAMAGE, target);
 	}
 
 	@Override
 	public boolean defendEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().defendEvent(object);
-		if(this.actionType == DEFEND && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(DEFEND, object);
 	}
 
 	@Override
 	public boolean escortEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().escortEvent(pnj);
-		if(this.actionType == ESCORT && isCorrectObjective(OBJECTIVE, pnj))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(ESCORT, pnj);
 	}
 
 	@Override
 	public boolean exchangeEvent(XMLStringObjectiveElement objectGive, XMLStringObjectiveElement objectGet, XMLStringObjectiveElement to)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().exchangeEvent(objectGive, objectGet, to);
-		if(this.actionType == EXCHANGE && isCorrectObjective(OBJ_GIVE, objectGive) && isCorrectObjective(OBJ_GET, objectGet) && isCorrectObjective(PNJ, to))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(EXCHANGE, objectGive, objectGet, to);
 	}
 
 	@Override
 	public boolean experimentEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().experimentEvent(object);
-		if(this.actionType == EXPERIMENT && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(EXPERIMENT, object);
 	}
 
 	@Override
 	public boolean exploreEvent(XMLStringObjectiveElement area)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().exploreEvent(area);
-		if(this.actionType == EXPLORE && isCorrectObjective(OBJECTIVE, area))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(EXPLORE, area);
 	}
 
 	@Override
 	public boolean gatherEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().gatherEvent(object);
-		if(this.actionType == GATHER && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(GATHER, object);
 	}
 
 	@Override
 	public boolean getEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().getEvent(object, from);
-		if(this.actionType == GET && isCorrectObjective(OBJ_GET, object) && isCorrectObjective(LOC_OBJECTIVE, from))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(GET, object, from);
 	}
 
 	@Override
 	public boolean giveEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement to)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().giveEvent(object, to);
-		if(this.actionType == GIVE && isCorrectObjective(OBJ_GIVE, object) && isCorrectObjective(LOC_OBJECTIVE, to))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(GIVE, object, to);
 	}
 
 	@Override
 	public boolean gotoEvent(XMLStringObjectiveElement area)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().gotoEvent(area);
-		if(this.actionType == GOTO && isCorrectObjective(OBJECTIVE, area))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(GOTO, area);
 	}
 
 	@Override
 	public boolean killEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().killEvent(pnj);
-		if(this.actionType == KILL && isCorrectObjective(OBJECTIVE, pnj))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(KILL, pnj);
 	}
 
 	@Override
 	public boolean learnEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().learnEvent(object);
-		if(this.actionType == LEARN && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(LEARN, object);
 	}
 
 	@Override
 	public boolean listenEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().exploreEvent(pnj);
-		if(this.actionType == LISTEN && isCorrectObjective(OBJECTIVE, pnj))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(LISTEN, pnj);
 	}
 
 	@Override
 	public boolean readEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().readEvent(object);
-		if(this.actionType == READ && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(READ, object);
 	}
 
 	@Override
 	public boolean repairEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().repairEvent(object);
-		if(this.actionType == REPAIR && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(REPAIR, object);
 	}
 
 	@Override
 	public boolean reportEvent(XMLStringObjectiveElement to)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().reportEvent(to);
-		if(this.actionType == REPORT && isCorrectObjective(OBJECTIVE, to))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(REPORT, to);
 	}
 
 	@Override
 	public boolean spyEvent(XMLStringObjectiveElement on)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().spyEvent(on);
-		if(this.actionType == SPY && isCorrectObjective(OBJECTIVE, on))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(SPY, on);
 	}
 
 	@Override
 	public boolean stealEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().stealEvent(object, from);
-		if(this.actionType == STEAL && isCorrectObjective(OBJ_GET, object) && isCorrectObjective(PNJ, from))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(STEAL, object, from);
 	}
 
 	@Override
 	public boolean stealthEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().stealthEvent(object);
-		if(this.actionType == STEALTH && isCorrectObjective(OBJECTIVE, object))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(STEALTH, object);
 	}
 
 	@Override
 	public boolean takeEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().takeEvent(object, from);
-		if(this.actionType == TAKE && isCorrectObjective(OBJ_GET, object) && isCorrectObjective(PNJ, from))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(TAKE, object, from);
 	}
 
 	@Override
 	public boolean useEvent(XMLStringObjectiveElement used, XMLStringObjectiveElement on)
 	{
-		if(this.isDone() || !isDoable())
-			return false;
-		if(this.subquest.isPresent())
-			return this.subquest.get().useEvent(used, on);
-		if(this.actionType == USE && isCorrectObjective(OBJ_USE, used) && isCorrectObjective(LOC_OBJECTIVE, on))
-		{
-			setDone(true);
-			return true;
-		}
-		return false;
+		return handleEvent(USE, used, on);
 	}
 
 	/**
@@ -628,8 +553,8 @@ public class Action implements GameListener
 			}
 			out.writeEndElement();
 		}
-		if(this.subquest.isPresent())
-			this.subquest.get().createXML(out);
+		if(this.getSubquest().isPresent())
+			this.getSubquest().get().createXML(out);
 		out.writeEndElement();
 	}
 
@@ -646,6 +571,16 @@ public class Action implements GameListener
 		return objectives;
 	}
 
+	/**
+	 * Used to get the ids in the catalog of all the used objectives in the action and its parents.
+	 *
+	 * @return The ids of the elements used.
+	 */
+	public ObjectiveIdSet getUsedObjectiveIds()
+	{
+		return this.usedObjectiveIds;
+	}
+
 	private Collection<XMLStringObjectiveElement> getObjectivesValues()
 	{
 		if(this.getObjectives().isPresent())
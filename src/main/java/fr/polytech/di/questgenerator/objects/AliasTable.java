@@ -0,0 +1,93 @@
+package fr.polytech.di.questgenerator.objects;
+
+import java.util.SplittableRandom;
+
+/**
+ * Weighted random sampler using the alias method (Vose). Building the table is O(n), each draw is O(1) and allocates nothing.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class AliasTable
+{
+	private final double[] probabilities;
+	private final int[] aliases;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param weights The weight of each index. They don't need to sum to 1 but must be positive, with at least one of them not null.
+	 */
+	public AliasTable(double... weights)
+	{
+		int size = weights.length;
+		double total = 0;
+		for(double weight : weights)
+		{
+			if(weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight))
+				throw new IllegalArgumentException("Invalid weight " + weight);
+			total += weight;
+		}
+		if(size == 0 || total <= 0)
+			throw new IllegalArgumentException("At least one weight must be positive");
+		this.probabilities = new double[size];
+		this.aliases = new int[size];
+		double[] scaled = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallCount = 0, largeCount = 0;
+		for(int i = 0; i < size; i++)
+		{
+			scaled[i] = weights[i] * size / total;
+			if(scaled[i] < 1)
+				small[smallCount++] = i;
+			else
+				large[largeCount++] = i;
+		}
+		while(smallCount > 0 && largeCount > 0)
+		{
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			this.probabilities[less] = scaled[less];
+			this.aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if(scaled[more] < 1)
+				small[smallCount++] = more;
+			else
+				large[largeCount++] = more;
+		}
+		while(largeCount > 0)
+		{
+			int index = large[--largeCount];
+			this.probabilities[index] = 1;
+			this.aliases[index] = index;
+		}
+		while(smallCount > 0)
+		{
+			int index = small[--smallCount];
+			this.probabilities[index] = 1;
+			this.aliases[index] = index;
+		}
+	}
+
+	/**
+	 * Pick a random index, taking in account the weights.
+	 *
+	 * @param random The source of randomness.
+	 * @return The index picked.
+	 */
+	public int sample(SplittableRandom random)
+	{
+		int column = random.nextInt(this.probabilities.length);
+		return random.nextDouble() < this.probabilities[column] ? column : this.aliases[column];
+	}
+
+	/**
+	 * Used to get the number of indexes of the table.
+	 *
+	 * @return The size.
+	 */
+	public int size()
+	{
+		return this.probabilities.length;
+	}
+}
@@ -0,0 +1,422 @@
+package fr.polytech.di.questgenerator.objects;
+
+import fr.polytech.di.questgenerator.enums.Resources;
+import fr.polytech.di.questgenerator.objects.xml.CatalogBuilder;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCategory;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.jar.JarEntry;
+
+/**
+ * Binary snapshot of the objectives catalog and of the properties files, to avoid parsing them at each start.
+ * The snapshot stores a string table, the categories in preorder with the indexes of their values in the string table and their weights, and the properties. It also stores a stamp of the files it has been compiled from, made of their location, size and modification time, so that it isn't used once they have been modified. Computing the stamp never reads the files.
+ * The snapshot is read from ./catalog.snapshot (memory-mapped) or from the resources, and is compiled by running this class.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogSnapshot
+{
+	/**
+	 * Name of the snapshot file.
+	 */
+	public static final String FILE_NAME = "catalog.snapshot";
+	private static final int MAGIC = 0x51474353;
+	private static final int VERSION = 3;
+	private static final String[] PROPERTIES_FILES = {"MotivationsProbabilities", "StrategiesProbabilities", "QuestSentences"};
+	private static final Optional<CatalogSnapshot> defaultSnapshot = loadDefault();
+	private final XMLStringObjectiveCatalog catalog;
+	private final HashMap<String, Properties> properties;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param catalog The catalog.
+	 * @param properties The properties by file name.
+	 */
+	private CatalogSnapshot(XMLStringObjectiveCatalog catalog, HashMap<String, Properties> properties)
+	{
+		this.catalog = catalog;
+		this.properties = properties;
+	}
+
+	/**
+	 * Used to get the snapshot found at start, if it matches the current source files.
+	 *
+	 * @return The snapshot, empty if missing or stale.
+	 */
+	public static Optional<CatalogSnapshot> getDefault()
+	{
+		return defaultSnapshot;
+	}
+
+	/**
+	 * Used to get the catalog of the snapshot.
+	 *
+	 * @return The catalog.
+	 */
+	public XMLStringObjectiveCatalog getCatalog()
+	{
+		return this.catalog;
+	}
+
+	/**
+	 * Used to get the properties of a file.
+	 *
+	 * @param name The name of the properties file (without the ".properties" ending).
+	 * @return The properties, null if not in the snapshot.
+	 */
+	public Properties getProperties(String name)
+	{
+		return this.properties.get(name);
+	}
+
+	/**
+	 * Load the snapshot from ./catalog.snapshot, or from the resources if not present.
+	 *
+	 * @return The snapshot, empty if missing, unreadable or stale.
+	 */
+	private static Optional<CatalogSnapshot> loadDefault()
+	{
+		try
+		{
+			File file = new File("./", FILE_NAME);
+			ByteBuffer buffer;
+			if(file.exists())
+				buffer = map(file);
+			else
+			{
+				URL resource = Resources.XMLS.getResource(FILE_NAME);
+				if(resource == null)
+					return Optional.empty();
+				buffer = ByteBuffer.wrap(readAll(resource.openStream()));
+			}
+			return read(buffer, getSourceStamp());
+		}
+		catch(IOException | RuntimeException e)
+		{
+			e.printStackTrace();
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Map a file in memory.
+	 *
+	 * @param file The file.
+	 * @return The mapped buffer.
+	 * @throws IOException If the file couldn't be mapped.
+	 */
+	private static ByteBuffer map(File file) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Read a snapshot.
+	 *
+	 * @param buffer The content of the snapshot.
+	 * @param stamp The stamp of the current source files.
+	 * @return The snapshot, empty if it isn't a snapshot of this version or if it has been compiled from other source files.
+	 */
+	public static Optional<CatalogSnapshot> read(ByteBuffer buffer, long stamp)
+	{
+		if(buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != stamp)
+			return Optional.empty();
+		String[] strings = new String[buffer.getInt()];
+		for(int i = 0; i < strings.length; i++)
+		{
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		CatalogBuilder builder = new CatalogBuilder();
+		int[] categories = new int[buffer.getInt()];
+		for(int i = 0; i < categories.length; i++)
+		{
+			String name = strings[buffer.getInt()];
+			int parent = buffer.getInt();
+			categories[i] = builder.addCategory(parent < 0 ? -1 : categories[parent], name);
+			int values = buffer.getInt();
+			for(int j = 0; j < values; j++)
+				builder.addValue(categories[i], strings[buffer.getInt()], buffer.getDouble());
+		}
+		HashMap<String, Properties> properties = new HashMap<>();
+		int files = buffer.getInt();
+		for(int i = 0; i < files; i++)
+		{
+			Properties prop = new Properties();
+			properties.put(strings[buffer.getInt()], prop);
+			int pairs = buffer.getInt();
+			for(int j = 0; j < pairs; j++)
+				prop.setProperty(strings[buffer.getInt()], strings[buffer.getInt()]);
+		}
+		return Optional.of(new CatalogSnapshot(builder.build(), properties));
+	}
+
+	/**
+	 * Write a snapshot.
+	 *
+	 * @param out The stream to write to.
+	 * @param categories The root categories.
+	 * @param properties The properties by file name.
+	 * @param stamp The stamp of the source files.
+	 * @throws IOException If the snapshot couldn't be written.
+	 */
+	public static void write(OutputStream out, List<XMLStringObjectiveCategory> categories, Map<String, Properties> properties, long stamp) throws IOException
+	{
+		LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+		ArrayList<XMLStringObjectiveCategory> ordered = new ArrayList<>();
+		for(XMLStringObjectiveCategory category : categories)
+			preorder(category, ordered);
+		for(XMLStringObjectiveCategory category : ordered)
+		{
+			strings.putIfAbsent(category.getName(), strings.size());
+			for(XMLStringObjectiveElement element : category.getAllValues(false))
+				strings.putIfAbsent(element.getValue(), strings.size());
+		}
+		for(Map.Entry<String, Properties> file : properties.entrySet())
+		{
+			strings.putIfAbsent(file.getKey(), strings.size());
+			for(String key : file.getValue().stringPropertyNames())
+			{
+				strings.putIfAbsent(key, strings.size());
+				strings.putIfAbsent(file.getValue().getProperty(key), strings.size());
+			}
+		}
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeLong(stamp);
+		data.writeInt(strings.size());
+		for(String string : strings.keySet())
+		{
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+		IdentityHashMap<XMLStringObjectiveCategory, Integer> indexes = new IdentityHashMap<>();
+		data.writeInt(ordered.size());
+		for(XMLStringObjectiveCategory category : ordered)
+		{
+			indexes.put(category, indexes.size());
+			data.writeInt(strings.get(category.getName()));
+			data.writeInt(category.getParent() == null ? -1 : indexes.get(category.getParent()));
+			data.writeInt(category.getAllValues(false).size());
+			for(XMLStringObjectiveElement element : category.getAllValues(false))
+			{
+				data.writeInt(strings.get(element.getValue()));
+				data.writeDouble(element.getWeight());
+			}
+		}
+		data.writeInt(properties.size());
+		for(Map.Entry<String, Properties> file : properties.entrySet())
+		{
+			data.writeInt(strings.get(file.getKey()));
+			Set<String> keys = file.getValue().stringPropertyNames();
+			data.writeInt(keys.size());
+			for(String key : keys)
+			{
+				data.writeInt(strings.get(key));
+				data.writeInt(strings.get(file.getValue().getProperty(key)));
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Add a category and its subcategories in preorder.
+	 *
+	 * @param category The category.
+	 * @param ordered The categories ordered so far.
+	 */
+	private static void preorder(XMLStringObjectiveCategory category, List<XMLStringObjectiveCategory> ordered)
+	{
+		ordered.add(category);
+		for(XMLStringObjectiveCategory subcategory : category.getSubCategories())
+			preorder(subcategory, ordered);
+	}
+
+	/**
+	 * Used to get the stamp of the source files used at this time: strings.xml and the properties files, from the working directory if present, else from the resources, and the overlays.
+	 * The stamp is computed from the location, size and modification time of each file, without reading them.
+	 *
+	 * @return The stamp.
+	 * @throws IOException If a file couldn't be found.
+	 */
+	public static long getSourceStamp() throws IOException
+	{
+		long stamp = 0;
+		for(URL source : DataHandler.getSources())
+			stamp = getStamp(stamp, source);
+		for(String name : PROPERTIES_FILES)
+		{
+			File file = new File("./", name + ".properties");
+			URL source = file.exists() ? file.toURI().toURL() : Resources.PROPERTIES.getResource(name + ".properties");
+			if(source == null)
+				throw new FileNotFoundException(name + ".properties");
+			stamp = getStamp(stamp, source);
+		}
+		return stamp;
+	}
+
+	/**
+	 * Add a source file to a stamp.
+	 * The size and modification time of a file of the file system are read from the file system, and the ones of a file inside a jar from its entry. For any other location, they are asked to the connection.
+	 *
+	 * @param stamp The stamp of the previous files.
+	 * @param source The file.
+	 * @return The stamp including the file.
+	 * @throws IOException If the file couldn't be found.
+	 */
+	private static long getStamp(long stamp, URL source) throws IOException
+	{
+		long size;
+		long modified;
+		if("file".equals(source.getProtocol()))
+		{
+			File file;
+			try
+			{
+				file = new File(source.toURI());
+			}
+			catch(URISyntaxException | IllegalArgumentException e)
+			{
+				throw new IOException("Invalid source " + source, e);
+			}
+			if(!file.isFile())
+				throw new FileNotFoundException(file.getPath());
+			size = file.length();
+			modified = file.lastModified();
+		}
+		else
+		{
+			URLConnection connection = source.openConnection();
+			if(connection instanceof JarURLConnection)
+			{
+				connection.setUseCaches(false);
+				JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+				size = entry.getSize();
+				modified = entry.getTime();
+				((JarURLConnection) connection).getJarFile().close();
+			}
+			else
+			{
+				size = connection.getContentLengthLong();
+				modified = connection.getLastModified();
+			}
+		}
+		stamp = 31 * stamp + source.toExternalForm().hashCode();
+		stamp = 31 * stamp + size;
+		return 31 * stamp + modified;
+	}
+
+	/**
+	 * Open a source file, from the working directory if present, else from the resources.
+	 *
+	 * @param resources The resources to look into.
+	 * @param name The name of the file.
+	 * @return The stream of the file.
+	 * @throws IOException If the file couldn't be opened.
+	 */
+	private static InputStream openSource(Resources resources, String name) throws IOException
+	{
+		File file = new File("./", name);
+		if(file.exists())
+			return new FileInputStream(file);
+		URL resource = resources.getResource(name);
+		if(resource == null)
+			throw new FileNotFoundException(name);
+		return resource.openStream();
+	}
+
+	/**
+	 * Read a whole stream and close it.
+	 *
+	 * @param in The stream.
+	 * @return The bytes read.
+	 * @throws IOException If the stream couldn't be read.
+	 */
+	private static byte[] readAll(InputStream in) throws IOException
+	{
+		try(InputStream stream = in)
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while((read = stream.read(buffer)) > 0)
+				out.write(buffer, 0, read);
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Compile the snapshot from the current source files.
+	 * Usage: CatalogSnapshot [output file] [--benchmark]. The output defaults to ./catalog.snapshot. With --benchmark, the time to load the catalog from the XML and from the snapshot is printed.
+	 *
+	 * @param args The arguments.
+	 * @throws IOException If the snapshot couldn't be written.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		boolean benchmark = Arrays.asList(args).contains("--benchmark");
+		File output = new File("./", FILE_NAME);
+		for(String arg : args)
+			if(!arg.startsWith("--"))
+				output = new File(arg);
+		HashMap<String, Properties> properties = new HashMap<>();
+		for(String name : PROPERTIES_FILES)
+		{
+			Properties prop = new Properties();
+			try(Reader reader = new InputStreamReader(openSource(Resources.PROPERTIES, name + ".properties"), StandardCharsets.UTF_8))
+			{
+				prop.load(reader);
+			}
+			properties.put(name, prop);
+		}
+		List<XMLStringObjectiveCategory> categories = DataHandler.loadXML().getCategories();
+		long stamp = getSourceStamp();
+		try(OutputStream out = new FileOutputStream(output))
+		{
+			write(out, categories, properties, stamp);
+		}
+		System.out.println("Snapshot written to " + output + " (" + output.length() + " bytes)");
+		if(benchmark)
+			benchmark(output);
+	}
+
+	/**
+	 * Print the time taken to load the catalog from the XML, with the streaming loader, and from the snapshot.
+	 *
+	 * @param snapshot The snapshot file.
+	 * @throws IOException If the snapshot couldn't be read.
+	 */
+	private static void benchmark(File snapshot) throws IOException
+	{
+		int runs = 200;
+		for(int pass = 0; pass < 2; pass++)
+		{
+			long start = System.nanoTime();
+			for(int i = 0; i < runs; i++)
+				DataHandler.loadXML();
+			long xml = System.nanoTime() - start;
+			start = System.nanoTime();
+			for(int i = 0; i < runs; i++)
+				read(map(snapshot), getSourceStamp()).map(CatalogSnapshot::getCatalog).orElseThrow(IllegalStateException::new);
+			long binary = System.nanoTime() - start;
+			System.out.printf("%s XML: %.3f ms/load, snapshot: %.3f ms/load%n", pass == 0 ? "Cold" : "Warm", xml / 1e6 / runs, binary / 1e6 / runs);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package fr.polytech.di.questgenerator.objects;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches a strings file and a directory of overlays, and reloads the catalog of the DataHandler from them each time one of them is created, modified or deleted.
+ * The directory of overlays is only watched if it exists when the watcher is created.
+ * The reload is done in a background thread; quests being generated keep the catalog they have been started with.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogWatcher implements AutoCloseable
+{
+	private static final long SETTLE_DELAY = 200;
+	private final Path file;
+	private final Path overlays;
+	private final WatchService service;
+	private final Thread thread;
+	private final AtomicLong reloads;
+	private final AtomicLong failures;
+
+	/**
+	 * Constructor.
+	 * Starts watching the files.
+	 *
+	 * @param file The strings file to watch.
+	 * @param overlays The directory of the overlays to watch.
+	 * @throws IOException If the directories couldn't be watched.
+	 */
+	public CatalogWatcher(Path file, Path overlays) throws IOException
+	{
+		this.file = file.toAbsolutePath().normalize();
+		this.overlays = overlays.toAbsolutePath().normalize();
+		this.reloads = new AtomicLong();
+		this.failures = new AtomicLong();
+		this.service = this.file.getFileSystem().newWatchService();
+		this.file.getParent().register(this.service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		if(Files.isDirectory(this.overlays))
+			this.overlays.register(this.service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		this.thread = new Thread(this::run, "Catalog watcher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Wait for changes of the files and reload the catalog.
+	 */
+	private void run()
+	{
+		try
+		{
+			while(!Thread.currentThread().isInterrupted())
+			{
+				WatchKey key = this.service.take();
+				boolean changed = false;
+				boolean overlay = this.overlays.equals(key.watchable());
+				for(WatchEvent<?> event : key.pollEvents())
+					if(overlay ? event.context().toString().endsWith(".xml") : this.file.getFileName().equals(event.context()))
+						changed = true;
+				key.reset();
+				if(changed)
+				{
+					// An editor may write the file in several steps, wait for it to settle and drop the events of the same write.
+					Thread.sleep(SETTLE_DELAY);
+					while((key = this.service.poll()) != null)
+					{
+						key.pollEvents();
+						key.reset();
+					}
+					if(DataHandler.reload(this.file.toFile(), this.overlays.toFile()))
+						this.reloads.incrementAndGet();
+					else
+						this.failures.incrementAndGet();
+				}
+			}
+		}
+		catch(InterruptedException | ClosedWatchServiceException ignored)
+		{
+		}
+	}
+
+	/**
+	 * Used to get the number of times the catalog has been reloaded.
+	 *
+	 * @return The number of reloads.
+	 */
+	public long getReloads()
+	{
+		return this.reloads.get();
+	}
+
+	/**
+	 * Used to get the number of times the file has changed but couldn't be loaded.
+	 *
+	 * @return The number of failures.
+	 */
+	public long getFailures()
+	{
+		return this.failures.get();
+	}
+
+	/**
+	 * Stop watching the file.
+	 *
+	 * @throws IOException If the watch service couldn't be closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		this.thread.interrupt();
+		this.service.close();
+	}
+}
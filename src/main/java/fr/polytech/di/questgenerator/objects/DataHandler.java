@@ -1,77 +1,76 @@
 package fr.polytech.di.questgenerator.objects;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.Resources;
-import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCategory;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
 import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
-import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveHandler;
-import org.xml.sax.SAXException;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveLoader;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Contains all the different objective values.
+ * The catalog is immutable and held in an atomic reference: a reload builds a new catalog and swaps it, generations already started keep the catalog they began with.
  * <p>
  * Created by COUCHOUD Thomas & COLEAU Victor.
  */
 public class DataHandler
 {
-	private final static ArrayList<XMLStringObjectiveCategory> strings;
+	private final static String OVERLAYS_DIRECTORY = "overlays";
 
 	/**
 	 * Get a random element from the given categories.
 	 *
+	 * @param context The context of the generation, giving the catalog and the source of randomness.
 	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
 	 * @return A random element.
 	 */
-	public static XMLStringObjectiveElement getRandomFromCategories(String... categories)
+	public static XMLStringObjectiveElement getRandomFromCategories(GeneratorContext context, String... categories)
 	{
-		return getRandomFromCategories(Collections.emptyList(), categories);
+		return getRandomFromCategories(context, ObjectiveIdSet.EMPTY, categories);
 	}
 
 	/**
 	 * Get a random element from the given categories.
 	 *
+	 * @param context The context of the generation, giving the catalog and the source of randomness.
 	 * @param parent The parent action to use to use for the blacklist.
 	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
 	 * @return A random element.
 	 */
-	public static XMLStringObjectiveElement getRandomFromCategories(Action parent, String... categories)
+	public static XMLStringObjectiveElement getRandomFromCategories(GeneratorContext context, Action parent, String... categories)
 	{
-		return getRandomFromCategories(parent == null ? Collections.emptyList() : parent.getUsedObjectives(), categories);
+		return getRandomFromCategories(context, parent == null ? ObjectiveIdSet.EMPTY : parent.getUsedObjectiveIds(), categories);
 	}
 
 	/**
 	 * Get a random element from the given categories.
 	 *
+	 * @param context The context of the generation, giving the catalog and the source of randomness.
 	 * @param blackList A list of the elements that can't be picked.
 	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
 	 * @return A random element.
 	 */
-	public static XMLStringObjectiveElement getRandomFromCategories(Collection<XMLStringObjectiveElement> blackList, String... categories)
+	public static XMLStringObjectiveElement getRandomFromCategories(GeneratorContext context, Collection<XMLStringObjectiveElement> blackList, String... categories)
 	{
-		ArrayList<XMLStringObjectiveElement> candidates = new ArrayList<>();
-		for(String category : categories)
-		{
-			boolean subcategories = false;
-			if(category.endsWith("/*"))
-			{
-				subcategories = true;
-				category = category.substring(0, category.length() - "/*".length());
-			}
-			Optional<XMLStringObjectiveCategory> categoryObj = XMLStringObjectiveCategory.getCategoryByName(strings, category);
-			if(categoryObj.isPresent())
-				candidates.addAll(categoryObj.get().getAllValues(subcategories));
-		}
-		candidates.removeAll(blackList);
-		if(candidates.isEmpty())
-			return new XMLStringObjectiveElement("", Arrays.toString(categories) + " - " + ThreadLocalRandom.current().nextInt(1000));
-		return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+		return context.getCatalog().getRandomFromCategories(context.getRandom(), blackList, categories);
+	}
+
+	/**
+	 * Get a random element from the given categories.
+	 *
+	 * @param context The context of the generation, giving the catalog and the source of randomness.
+	 * @param excluded The ids in the catalog of the elements that can't be picked.
+	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
+	 * @return A random element.
+	 */
+	public static XMLStringObjectiveElement getRandomFromCategories(GeneratorContext context, ObjectiveIdSet excluded, String... categories)
+	{
+		return context.getCatalog().getRandomFromCategories(context.getRandom(), excluded, categories);
 	}
 
 	/**
@@ -79,13 +78,20 @@ public class DataHandler
 	 *
 	 * @return The elements.
 	 */
-	public static ArrayList<XMLStringObjectiveElement> getAllSorted()
+	public static List<XMLStringObjectiveElement> getAllSorted()
 	{
-		ArrayList<XMLStringObjectiveElement> list = new ArrayList<>();
-		for(XMLStringObjectiveCategory category : strings)
-			list.addAll(category.getAllValues(true));
-		list.sort(XMLStringObjectiveElement::compareTo);
-		return list;
+		return CatalogHolder.catalog.get().getAllSorted();
+	}
+
+	/**
+	 * Used to get the elements whose value starts with the given prefix, sorted.
+	 *
+	 * @param prefix The prefix of the values.
+	 * @return The elements.
+	 */
+	public static List<XMLStringObjectiveElement> getByPrefix(String prefix)
+	{
+		return CatalogHolder.catalog.get().getByPrefix(prefix);
 	}
 
 	/**
@@ -97,30 +103,130 @@ public class DataHandler
 	 */
 	public static XMLStringObjectiveElement getElement(String path, String value)
 	{
-		Optional<XMLStringObjectiveCategory> category = XMLStringObjectiveCategory.getCategoryByName(strings, path);
-		if(category.isPresent())
-			return category.get().getElement(value);
-		return null;
+		return CatalogHolder.catalog.get().getElement(path, value);
+	}
+
+	/**
+	 * Get the current catalog read from the strings file.
+	 *
+	 * @return The catalog.
+	 */
+	public static XMLStringObjectiveCatalog getCatalog()
+	{
+		return CatalogHolder.catalog.get();
+	}
+
+	/**
+	 * Read the strings file again and replace the current catalog. If the file couldn't be read, the current catalog is kept.
+	 *
+	 * @return true if the catalog has been replaced, false otherwise.
+	 */
+	public static boolean reload()
+	{
+		return reload(new File("./", "strings.xml"), new File("./", OVERLAYS_DIRECTORY));
+	}
+
+	/**
+	 * Read the given strings file and overlays and replace the current catalog. If a file couldn't be read, the current catalog is kept.
+	 *
+	 * @param file The strings file, the one of the resources being used if it doesn't exist.
+	 * @param overlays The directory of the overlays.
+	 * @return true if the catalog has been replaced, false otherwise.
+	 */
+	public static synchronized boolean reload(File file, File overlays)
+	{
+		try
+		{
+			CatalogHolder.catalog.set(new XMLStringObjectiveLoader().load(getSources(file, overlays)));
+			return true;
+		}
+		catch(IOException | XMLStreamException | RuntimeException e)
+		{
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * Start watching ./strings.xml and the overlays in ./overlays, reloading the catalog each time one is modified.
+	 *
+	 * @return The watcher, to close to stop watching.
+	 * @throws IOException If the files couldn't be watched.
+	 */
+	public static CatalogWatcher watch() throws IOException
+	{
+		return new CatalogWatcher(new File("./", "strings.xml").toPath(), new File("./", OVERLAYS_DIRECTORY).toPath());
 	}
 
 	/**
-	 * Initialize the strings.
+	 * Used to get the files the catalog is loaded from: the strings file, ./strings.xml if present, else the one of the resources, followed by the overlays, the xml files of ./overlays sorted by name.
+	 *
+	 * @return The files.
+	 * @throws IOException If a file couldn't be located.
 	 */
-	static
+	public static List<URL> getSources() throws IOException
+	{
+		return getSources(new File("./", "strings.xml"), new File("./", OVERLAYS_DIRECTORY));
+	}
+
+	/**
+	 * Used to get the files a catalog is loaded from: the given strings file if present, else the one of the resources, followed by the xml files of the directory of the overlays sorted by name.
+	 *
+	 * @param file The strings file.
+	 * @param overlays The directory of the overlays.
+	 * @return The files.
+	 * @throws IOException If a file couldn't be located.
+	 */
+	private static List<URL> getSources(File file, File overlays) throws IOException
+	{
+		ArrayList<URL> sources = new ArrayList<>();
+		sources.add(file.exists() ? file.toURI().toURL() : Resources.XMLS.getResource("strings.xml"));
+		File[] files = overlays.listFiles((directory, name) -> name.endsWith(".xml"));
+		if(files != null)
+		{
+			Arrays.sort(files);
+			for(File overlay : files)
+				sources.add(overlay.toURI().toURL());
+		}
+		return sources;
+	}
+
+	/**
+	 * Load the catalog from the strings file, ./strings.xml if present, else the one of the resources, and its overlays, with the streaming loader.
+	 *
+	 * @return The catalog, empty if a file couldn't be read.
+	 */
+	public static XMLStringObjectiveCatalog loadXML()
 	{
-		ArrayList<XMLStringObjectiveCategory> stringsTemp = new ArrayList<>();
 		try
 		{
-			SAXParserFactory factory = SAXParserFactory.newInstance();
-			SAXParser parser = factory.newSAXParser();
-			XMLStringObjectiveHandler handler = new XMLStringObjectiveHandler();
-			parser.parse(new File("./", "strings.xml").exists() ? new File("./", "strings.xml").toString() : Resources.XMLS.getResource("strings.xml").toURI().toString(), handler);
-			stringsTemp = handler.getCategories();
+			return readCatalog();
 		}
-		catch(IOException | URISyntaxException | ParserConfigurationException | SAXException e)
+		catch(IOException | XMLStreamException e)
 		{
 			e.printStackTrace();
 		}
-		strings = stringsTemp;
+		return new XMLStringObjectiveCatalog(new ArrayList<>());
+	}
+
+	/**
+	 * Load the catalog from the strings file and its overlays, with the streaming loader.
+	 *
+	 * @return The catalog.
+	 * @throws IOException If a file couldn't be read.
+	 * @throws XMLStreamException If a file couldn't be parsed.
+	 */
+	private static XMLStringObjectiveCatalog readCatalog() throws IOException, XMLStreamException
+	{
+		return new XMLStringObjectiveLoader().load(getSources());
+	}
+
+	/**
+	 * Holder of the current catalog, initialized the first time the catalog is used, from the binary snapshot if it is up to date, else from the XML file.
+	 * Keeping it out of DataHandler lets the snapshot list the source files with {@link #getSources()} while it is loaded.
+	 */
+	private static class CatalogHolder
+	{
+		private final static AtomicReference<XMLStringObjectiveCatalog> catalog = new AtomicReference<>(CatalogSnapshot.getDefault().map(CatalogSnapshot::getCatalog).orElseGet(DataHandler::loadXML));
 	}
 }
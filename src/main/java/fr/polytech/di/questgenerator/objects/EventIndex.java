@@ -0,0 +1,184 @@
+package fr.polytech.di.questgenerator.objects;
+
+import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ObjectiveType;
+import fr.polytech.di.questgenerator.interfaces.QuestListener;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.*;
+
+/**
+ * Index of the actions of a group of quests that a game event could complete, so that an event doesn't have to go through the whole quests.
+ * Only the action to do of each quest is indexed, by its type and its first event objective. The index listens to its quests and moves to the next action to do each time an action is done.
+ * The quests of a group must be independent, none of them being a subquest of another one, and their actions must not be changed once added. This class isn't thread safe.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class EventIndex implements QuestListener
+{
+	private final EnumMap<ActionType, HashMap<XMLStringObjectiveElement, LinkedHashSet<Action>>> leaves;
+	private final LinkedHashMap<Quest, Action> frontiers;
+	private final IdentityHashMap<Action, Quest> owners;
+
+	/**
+	 * Constructor.
+	 */
+	public EventIndex()
+	{
+		this.leaves = new EnumMap<>(ActionType.class);
+		this.frontiers = new LinkedHashMap<>();
+		this.owners = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Add a quest to the index.
+	 *
+	 * @param quest The quest to add.
+	 */
+	public void add(Quest quest)
+	{
+		if(this.frontiers.containsKey(quest))
+			return;
+		quest.addQuestListener(this);
+		refresh(quest);
+	}
+
+	/**
+	 * Remove a quest from the index.
+	 *
+	 * @param quest The quest to remove.
+	 */
+	public void remove(Quest quest)
+	{
+		if(!this.frontiers.containsKey(quest))
+			return;
+		quest.removeQuestListener(this);
+		unindex(this.frontiers.remove(quest));
+	}
+
+	/**
+	 * Used to get the number of quests in the index.
+	 *
+	 * @return The number of quests.
+	 */
+	public int size()
+	{
+		return this.frontiers.size();
+	}
+
+	/**
+	 * Used to get the actions that can be done now in the quests of the index, one for each quest not done, in the order the quests have been added.
+	 *
+	 * @return The doable leaves.
+	 */
+	public List<Action> getDoableLeaves()
+	{
+		List<Action> leaves = new ArrayList<>(this.frontiers.size());
+		for(Action leaf : this.frontiers.values())
+			if(leaf != null)
+				leaves.add(leaf);
+		return leaves;
+	}
+
+	/**
+	 * Update the action to do of a quest, after it has been changed.
+	 *
+	 * @param quest The quest to update.
+	 */
+	public void refresh(Quest quest)
+	{
+		Action leaf = quest.getActionToDo();
+		Action previous = this.frontiers.put(quest, leaf);
+		if(previous == leaf)
+			return;
+		unindex(previous);
+		if(leaf == null)
+			return;
+		List<ObjectiveType> objectives = leaf.getActionType().getEventObjectives();
+		if(objectives.isEmpty())
+			return;
+		this.owners.put(leaf, quest);
+		this.leaves.computeIfAbsent(leaf.getActionType(), type -> new HashMap<>()).computeIfAbsent(leaf.getObjective(objectives.get(0)), objective -> new LinkedHashSet<>()).add(leaf);
+	}
+
+	/**
+	 * Remove an action from the index.
+	 *
+	 * @param leaf The action to remove, may be null.
+	 */
+	private void unindex(Action leaf)
+	{
+		if(leaf == null || this.owners.remove(leaf) == null)
+			return;
+		HashMap<XMLStringObjectiveElement, LinkedHashSet<Action>> objectives = this.leaves.get(leaf.getActionType());
+		XMLStringObjectiveElement objective = leaf.getObjective(leaf.getActionType().getEventObjectives().get(0));
+		LinkedHashSet<Action> actions = objectives.get(objective);
+		actions.remove(leaf);
+		if(actions.isEmpty())
+			objectives.remove(objective);
+	}
+
+	/**
+	 * Give an event to the quests of the index.
+	 * Each action matching the event is done. If the next action to do of its quest matches the event too, it is done as well, and so on.
+	 *
+	 * @param type The type of the event.
+	 * @param values The objectives of the event, in the order given by the ActionType.
+	 * @return The actions done, in the order they have been done.
+	 */
+	public List<Action> dispatch(ActionType type, XMLStringObjectiveElement... values)
+	{
+		if(values.length == 0 || values.length != type.getEventObjectives().size())
+			return Collections.emptyList();
+		HashMap<XMLStringObjectiveElement, LinkedHashSet<Action>> objectives = this.leaves.get(type);
+		if(objectives == null)
+			return Collections.emptyList();
+		LinkedHashSet<Action> candidates = objectives.get(values[0]);
+		if(candidates == null)
+			return Collections.emptyList();
+		List<Action> done = new ArrayList<>();
+		for(Action candidate : candidates.toArray(new Action[candidates.size()]))
+		{
+			Quest quest = this.owners.get(candidate);
+			if(quest == null)
+				continue;
+			Action action = candidate;
+			while(action != null && action.matchesEvent(type, values))
+			{
+				action.setDone(true);
+				done.add(action);
+				Action next = this.frontiers.get(quest);
+				action = next == action ? null : next;
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Give events to the quests of the index, one after the other.
+	 *
+	 * @param events The events, in the order they happened.
+	 * @return The actions done, in the order they have been done.
+	 */
+	public Set<Action> apply(List<GameEvent> events)
+	{
+		LinkedHashSet<Action> done = new LinkedHashSet<>();
+		for(GameEvent event : events)
+			done.addAll(dispatch(event.getType(), event.getValues()));
+		return done;
+	}
+
+	@Override
+	public void actionDone(Action action)
+	{
+		Quest quest = action.getParentQuest();
+		while(quest != null && !this.frontiers.containsKey(quest))
+			quest = quest.getParent() == null ? null : quest.getParent().getParentQuest();
+		if(quest != null)
+			refresh(quest);
+	}
+
+	@Override
+	public void questDone(Quest quest)
+	{
+	}
+}
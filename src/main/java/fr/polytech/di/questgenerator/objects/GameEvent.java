@@ -0,0 +1,129 @@
+package fr.polytech.di.questgenerator.objects;
+
+import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ObjectiveType;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An event that happened in the game, given to the quests to update their progression.
+ * An event has the type of the actions it can complete and the objectives given by the game, in the order of the event objectives of the type.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public final class GameEvent
+{
+	private final ActionType type;
+	private final XMLStringObjectiveElement[] objectives;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param type The type of the event.
+	 * @param objectives The objectives of the event, in the order given by {@link ActionType#getEventObjectives()}.
+	 * @throws IllegalArgumentException If the type has no event or if the number of objectives doesn't match it.
+	 */
+	public GameEvent(ActionType type, XMLStringObjectiveElement... objectives)
+	{
+		List<ObjectiveType> objectiveTypes = type.getEventObjectives();
+		if(objectiveTypes.isEmpty())
+			throw new IllegalArgumentException("No event for actions of type " + type);
+		if(objectives.length != objectiveTypes.size())
+			throw new IllegalArgumentException("Event " + type + " needs " + objectiveTypes + ", got " + objectives.length + " objectives");
+		for(XMLStringObjectiveElement objective : objectives)
+			if(objective == null)
+				throw new IllegalArgumentException("Null objective for event " + type);
+		this.type = type;
+		this.objectives = objectives.clone();
+	}
+
+	/**
+	 * Used to build an event from the ids of its objectives in a catalog.
+	 *
+	 * @param catalog The catalog of the objectives.
+	 * @param type The type of the event.
+	 * @param ids The ids of the objectives, in the order given by {@link ActionType#getEventObjectives()}.
+	 * @return The event.
+	 * @throws IllegalArgumentException If an id isn't part of the catalog, if the type has no event or if the number of objectives doesn't match it.
+	 */
+	public static GameEvent of(XMLStringObjectiveCatalog catalog, ActionType type, int... ids)
+	{
+		XMLStringObjectiveElement[] objectives = new XMLStringObjectiveElement[ids.length];
+		for(int i = 0; i < ids.length; i++)
+		{
+			objectives[i] = catalog.getElement(ids[i]);
+			if(objectives[i] == null)
+				throw new IllegalArgumentException("Unknown element id " + ids[i]);
+		}
+		return new GameEvent(type, objectives);
+	}
+
+	/**
+	 * Used to get the type of the event.
+	 *
+	 * @return The type.
+	 */
+	public ActionType getType()
+	{
+		return this.type;
+	}
+
+	/**
+	 * Used to get the objectives of the event.
+	 *
+	 * @return The objectives, as an unmodifiable list.
+	 */
+	public List<XMLStringObjectiveElement> getObjectives()
+	{
+		return Collections.unmodifiableList(Arrays.asList(this.objectives));
+	}
+
+	/**
+	 * Used to get the objectives of the event without copying them.
+	 *
+	 * @return The objectives.
+	 */
+	XMLStringObjectiveElement[] getValues()
+	{
+		return this.objectives;
+	}
+
+	/**
+	 * Used to get the ids of the objectives in their catalog.
+	 *
+	 * @return The ids, -1 for the objectives that aren't part of a catalog.
+	 */
+	public int[] getIds()
+	{
+		int[] ids = new int[this.objectives.length];
+		for(int i = 0; i < ids.length; i++)
+			ids[i] = this.objectives[i].getId();
+		return ids;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o)
+			return true;
+		if(!(o instanceof GameEvent))
+			return false;
+		GameEvent event = (GameEvent) o;
+		return this.type == event.type && Arrays.equals(this.objectives, event.objectives);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * this.type.hashCode() + Arrays.hashCode(this.objectives);
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.type + Arrays.toString(this.objectives);
+	}
+}
@@ -0,0 +1,140 @@
+package fr.polytech.di.questgenerator.objects;
+
+/**
+ * Immutable set of objective ids, stored as a 32-ary trie of 64 bits words.
+ * Adding an id copies only the path to its word (at most one node per level), the rest of the trie being shared with the original set. The number of levels only depends on the greatest id, so for a given catalog adding and testing ids is done in constant time.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public final class ObjectiveIdSet
+{
+	/**
+	 * The set without any id.
+	 */
+	public static final ObjectiveIdSet EMPTY = new ObjectiveIdSet(null, 0, 0);
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+	private final Object root;
+	private final int shift;
+	private final int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param root The root node, an array of nodes or of words if the shift is 0, null if empty.
+	 * @param shift The shift of the word index for the root level.
+	 * @param size The number of ids.
+	 */
+	private ObjectiveIdSet(Object root, int shift, int size)
+	{
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
+	}
+
+	/**
+	 * Used to know if an id is in the set.
+	 *
+	 * @param id The id to test.
+	 * @return True if present, false if not.
+	 */
+	public boolean contains(int id)
+	{
+		if(id < 0 || this.root == null)
+			return false;
+		int word = id >>> 6;
+		if((word >>> this.shift) >= WIDTH)
+			return false;
+		Object node = this.root;
+		for(int shift = this.shift; shift > 0; shift -= BITS)
+		{
+			node = ((Object[]) node)[(word >>> shift) & MASK];
+			if(node == null)
+				return false;
+		}
+		return (((long[]) node)[word & MASK] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Used to get a set with an additional id.
+	 *
+	 * @param id The id to add, ignored if negative.
+	 * @return The new set, this one if the id was already present.
+	 */
+	public ObjectiveIdSet with(int id)
+	{
+		if(id < 0 || this.contains(id))
+			return this;
+		int word = id >>> 6;
+		Object root = this.root;
+		int shift = this.shift;
+		while((word >>> shift) >= WIDTH)
+		{
+			if(root != null)
+			{
+				Object[] parent = new Object[WIDTH];
+				parent[0] = root;
+				root = parent;
+			}
+			shift += BITS;
+		}
+		return new ObjectiveIdSet(with(root, shift, word, id), shift, this.size + 1);
+	}
+
+	/**
+	 * Copy the path to the word of an id and set its bit.
+	 *
+	 * @param node The node to copy, null if not existing yet.
+	 * @param shift The shift of the word index for the level of the node.
+	 * @param word The index of the word.
+	 * @param id The id to add.
+	 * @return The new node.
+	 */
+	private static Object with(Object node, int shift, int word, int id)
+	{
+		if(shift == 0)
+		{
+			long[] words = node == null ? new long[WIDTH] : ((long[]) node).clone();
+			words[word & MASK] |= 1L << id;
+			return words;
+		}
+		Object[] children = node == null ? new Object[WIDTH] : ((Object[]) node).clone();
+		int index = (word >>> shift) & MASK;
+		children[index] = with(children[index], shift - BITS, word, id);
+		return children;
+	}
+
+	/**
+	 * Used to get the first id not in the set starting from the given one.
+	 *
+	 * @param from The id to start from.
+	 * @return The id.
+	 */
+	public int nextAbsent(int from)
+	{
+		while(this.contains(from))
+			from++;
+		return from;
+	}
+
+	/**
+	 * Used to get the number of ids in the set.
+	 *
+	 * @return The size.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Used to know if the set is empty.
+	 *
+	 * @return True if empty, false if not.
+	 */
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+}
@@ -1,5 +1,6 @@
 package fr.polytech.di.questgenerator.objects;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
 import fr.polytech.di.questgenerator.enums.ActionType;
 import fr.polytech.di.questgenerator.interfaces.GameListener;
 import fr.polytech.di.questgenerator.interfaces.QuestListener;
@@ -8,6 +9,7 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A quest.
@@ -18,8 +20,17 @@ public class Quest implements GameListener
 {
 	private final List<QuestListener> questListeners;
 	private final Action parent;
+	private final GeneratorContext context;
+	private final long catalogVersion;
+	private OptionalLong seed;
 	private String description;
 	private final LinkedHashSet<Action> actions;
+	private final ArrayList<Action> order;
+	private final IdentityHashMap<Action, Integer> positions;
+	private int doneCount;
+	private int nextIndex;
+	private final AtomicLong changes;
+	private volatile Frontier frontier;
 
 	/**
 	 * Used to initialize a quest.
@@ -51,23 +62,32 @@ public class Quest implements GameListener
 	/**
 	 * Constructor.
 	 *
+	 * @param context The context of the generation, used by its actions to generate their subquests.
 	 * @param parent The parent action, null if none.
 	 */
-	public Quest(Action parent)
+	public Quest(GeneratorContext context, Action parent)
 	{
 		this.questListeners = new ArrayList<>();
 		this.actions = new LinkedHashSet<>();
+		this.order = new ArrayList<>();
+		this.positions = new IdentityHashMap<>();
+		this.changes = new AtomicLong();
+		this.context = context;
+		this.catalogVersion = context.getCatalog().getVersion();
 		this.parent = parent;
+		this.seed = OptionalLong.empty();
 	}
 
 	/**
 	 * Get the Epsilon Quest with is the quest that is empty.
 	 *
+	 * @param context The context of the generation.
+	 * @param parent The parent action, null if none.
 	 * @return The Epsilon Quest.
 	 */
-	public static Quest getEpsilon(Action parent)
+	public static Quest getEpsilon(GeneratorContext context, Action parent)
 	{
-		return new QuestEpsilon(parent);
+		return new QuestEpsilon(context, parent);
 	}
 
 	@Override
@@ -162,16 +182,8 @@ public class Quest implements GameListener
 	 */
 	public boolean isActionDoable(Action action)
 	{
-		if(!this.actions.contains(action))
-			return false;
-		for(Action a : this.actions)
-		{
-			if(a == action)
-				break;
-			if(!a.isDone())
-				return false;
-		}
-		return true;
+		Integer position = this.positions.get(action);
+		return position != null && position <= this.nextIndex;
 	}
 
 	/**
@@ -181,25 +193,142 @@ public class Quest implements GameListener
 	 */
 	public boolean isDone()
 	{
-		for(Action a : this.actions)
-			if(!a.isDone())
-				return false;
-		return true;
+		return this.doneCount == this.order.size();
 	}
 
 	/**
 	 * Used to get the action we have to do, including its sub actions if present.
+	 * The action is kept until an action of the quest changes, so that asking it again is O(1). It is kept with the number of changes of the quest it has been found at, so that an action found while the quest was changing by another thread is found again.
 	 *
 	 * @return The Action to do.
 	 */
 	public Action getActionToDo()
 	{
-		for(Action a : this.actions)
-			if(!a.isDone() && a.isDoable())
-				return a.getActionToDo();
+		Frontier frontier = this.frontier;
+		long changes = this.changes.get();
+		if(frontier == null || frontier.changes != changes)
+		{
+			frontier = new Frontier(changes, this.findActionToDo());
+			this.frontier = frontier;
+		}
+		return frontier.action;
+	}
+
+	/**
+	 * Used to get all the leaf actions that can be done now.
+	 * A quest tree is strictly sequential: an action is doable only once the actions before it in its quest are done, and an action with a subquest is done through the actions of its subquest. So there is never more than one doable leaf, the action to do, and this list has at most one element.
+	 * Use an {@link EventIndex} to get the doable leaves of several quests.
+	 *
+	 * @return The doable leaves, empty if the quest is done.
+	 */
+	public List<Action> getDoableLeaves()
+	{
+		Action frontier = this.getActionToDo();
+		return frontier == null ? Collections.emptyList() : Collections.singletonList(frontier);
+	}
+
+	/**
+	 * Used to find the action we have to do, going down the subquests of the next action to do.
+	 *
+	 * @return The Action to do.
+	 */
+	private Action findActionToDo()
+	{
+		while(this.nextIndex < this.order.size())
+		{
+			Action action = this.order.get(this.nextIndex);
+			Action leaf = action.getActionToDo();
+			// Generating the subquest of the action may have done it, if the subquest is empty.
+			if(leaf != null || !action.isDone())
+				return leaf;
+		}
 		return null;
 	}
 
+	/**
+	 * Update the counters of this quest after the done state of one of its actions has changed, and give the change to the parent action if this quest is done or isn't anymore.
+	 *
+	 * @param action The action changed.
+	 */
+	synchronized void actionStateChanged(Action action)
+	{
+		Integer position = this.positions.get(action);
+		if(position == null)
+			return;
+		boolean wasDone = this.isDone();
+		if(action.isDone())
+		{
+			this.doneCount++;
+			this.advance();
+		}
+		else
+		{
+			this.doneCount--;
+			this.nextIndex = Math.min(this.nextIndex, position);
+		}
+		this.invalidateFrontier();
+		if(wasDone != this.isDone() && this.getParent() != null)
+			this.getParent().updateState();
+	}
+
+	/**
+	 * Forget the action to do of this quest and of its parents, after one of its actions has changed. Must be called once the change is done.
+	 */
+	private void invalidateFrontier()
+	{
+		for(Quest quest = this; quest != null; quest = quest.getParent() == null ? null : quest.getParent().getParentQuest())
+			quest.changes.incrementAndGet();
+	}
+
+	/**
+	 * Move the index of the next action to do after the actions done.
+	 */
+	private void advance()
+	{
+		while(this.nextIndex < this.order.size() && this.order.get(this.nextIndex).isDone())
+			this.nextIndex++;
+	}
+
+	/**
+	 * Used to get the context the quest has been generated with.
+	 *
+	 * @return The context.
+	 */
+	public GeneratorContext getContext()
+	{
+		return this.context;
+	}
+
+	/**
+	 * Used to get the version of the catalog the objectives of this quest have been picked from.
+	 *
+	 * @return The catalog version.
+	 */
+	public long getCatalogVersion()
+	{
+		return this.catalogVersion;
+	}
+
+	/**
+	 * Used to get the seed the quest has been generated from. Generating a quest again from this seed with the same configuration gives the same quest.
+	 *
+	 * @return The seed, empty if this quest isn't a root quest built by the QuestGenerator.
+	 */
+	public OptionalLong getSeed()
+	{
+		return this.seed;
+	}
+
+	/**
+	 * Used to set the seed the quest has been generated from.
+	 *
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = OptionalLong.of(seed);
+	}
+
 	/**
 	 * Used to get the parent Action.
 	 *
@@ -248,246 +377,196 @@ public class Quest implements GameListener
 		this.questListeners.add(questListener);
 	}
 
+	/**
+	 * Used to remove a quest listener.
+	 *
+	 * @param questListener The listener.
+	 */
+	public void removeQuestListener(QuestListener questListener)
+	{
+		this.questListeners.remove(questListener);
+	}
+
+	/**
+	 * Give game events to this quest, one after the other.
+	 *
+	 * @param events The events, in the order they happened.
+	 * @return The actions done, in the order they have been done.
+	 */
+	public Set<Action> apply(List<GameEvent> events)
+	{
+		LinkedHashSet<Action> done = new LinkedHashSet<>();
+		for(GameEvent event : events)
+			this.handleEvent(done, event.getType(), event.getValues());
+		return done;
+	}
+
+	/**
+	 * Give a game event to the action to do of this quest.
+	 *
+	 * @param type The type of the event.
+	 * @param values The objectives of the event, in the order given by the ActionType.
+	 * @return True if an action has been done, false if not.
+	 */
+	boolean handleEvent(ActionType type, XMLStringObjectiveElement... values)
+	{
+		return this.handleEvent(null, type, values);
+	}
+
+	/**
+	 * Give a game event to the action to do of this quest. The action to do is kept up to date by the quest, so a single quest doesn't need an {@link EventIndex}.
+	 * If the action to do matches the event, it is done. If the next action to do matches the event too, it is done as well, and so on.
+	 *
+	 * @param done The set to add the actions done to, null if not needed.
+	 * @param type The type of the event.
+	 * @param values The objectives of the event, in the order given by the ActionType.
+	 * @return True if an action has been done, false if not.
+	 */
+	private boolean handleEvent(Set<Action> done, ActionType type, XMLStringObjectiveElement... values)
+	{
+		if(values.length == 0 || values.length != type.getEventObjectives().size())
+			return false;
+		boolean matched = false;
+		for(Action action = this.getActionToDo(); action != null && action.matchesEvent(type, values); action = this.getActionToDo())
+		{
+			action.setDone(true);
+			if(done != null)
+				done.add(action);
+			matched = true;
+		}
+		return matched;
+	}
+
 	@Override
 	public boolean captureEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.captureEvent(pnj);
-		return result;
+		return handleEvent(ActionType.CAPTURE, pnj);
 	}
 
 	@Override
 	public boolean damageEvent(XMLStringObjectiveElement target)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.damageEvent(target);
-		return result;
+		return handleEvent(ActionType.DAMAGE, target);
 	}
 
 	@Override
 	public boolean defendEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.defendEvent(object);
-		return result;
+		return handleEvent(ActionType.DEFEND, object);
 	}
 
 	@Override
 	public boolean escortEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.escortEvent(pnj);
-		return result;
+		return handleEvent(ActionType.ESCORT, pnj);
 	}
 
 	@Override
 	public boolean exchangeEvent(XMLStringObjectiveElement objectGive, XMLStringObjectiveElement objectGet, XMLStringObjectiveElement to)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.exchangeEvent(objectGive, objectGet, to);
-		return result;
+		return handleEvent(ActionType.EXCHANGE, objectGive, objectGet, to);
 	}
 
 	@Override
 	public boolean experimentEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.experimentEvent(object);
-		return result;
+		return handleEvent(ActionType.EXPERIMENT, object);
 	}
 
 	@Override
 	public boolean exploreEvent(XMLStringObjectiveElement area)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.exploreEvent(area);
-		return result;
+		return handleEvent(ActionType.EXPLORE, area);
 	}
 
 	@Override
 	public boolean gatherEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.gatherEvent(object);
-		return result;
+		return handleEvent(ActionType.GATHER, object);
 	}
 
 	@Override
 	public boolean getEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.getEvent(object, from);
-		return result;
+		return handleEvent(ActionType.GET, object, from);
 	}
 
 	@Override
 	public boolean giveEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement to)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.giveEvent(object, to);
-		return result;
+		return handleEvent(ActionType.GIVE, object, to);
 	}
 
 	@Override
 	public boolean gotoEvent(XMLStringObjectiveElement area)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.gotoEvent(area);
-		return result;
+		return handleEvent(ActionType.GOTO, area);
 	}
 
 	@Override
 	public boolean killEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.killEvent(pnj);
-		return result;
+		return handleEvent(ActionType.KILL, pnj);
 	}
 
 	@Override
 	public boolean learnEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.learnEvent(object);
-		return result;
+		return handleEvent(ActionType.LEARN, object);
 	}
 
 	@Override
 	public boolean listenEvent(XMLStringObjectiveElement pnj)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.listenEvent(pnj);
-		return result;
+		return handleEvent(ActionType.LISTEN, pnj);
 	}
 
 	@Override
 	public boolean readEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.readEvent(object);
-		return result;
+		return handleEvent(ActionType.READ, object);
 	}
 
 	@Override
 	public boolean repairEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.repairEvent(object);
-		return result;
+		return handleEvent(ActionType.REPAIR, object);
 	}
 
 	@Override
 	public boolean reportEvent(XMLStringObjectiveElement to)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.reportEvent(to);
-		return result;
+		return handleEvent(ActionType.REPORT, to);
 	}
 
 	@Override
 	public boolean spyEvent(XMLStringObjectiveElement on)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.spyEvent(on);
-		return result;
+		return handleEvent(ActionType.SPY, on);
 	}
 
 	@Override
 	public boolean stealEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.stealEvent(object, from);
-		return result;
+		return handleEvent(ActionType.STEAL, object, from);
 	}
 
 	@Override
 	public boolean stealthEvent(XMLStringObjectiveElement object)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.stealthEvent(object);
-		return result;
+		return handleEvent(ActionType.STEALTH, object);
 	}
 
 	@Override
 	public boolean takeEvent(XMLStringObjectiveElement object, XMLStringObjectiveElement from)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.takeEvent(object, from);
-		return result;
+		return handleEvent(ActionType.TAKE, object, from);
 	}
 
 	@Override
 	public boolean useEvent(XMLStringObjectiveElement used, XMLStringObjectiveElement on)
 	{
-		if(this.isDone())
-			return false;
-		boolean result = false;
-		for(Action action : this.getActions())
-			result |= action.useEvent(used, on);
-		return result;
+		return handleEvent(ActionType.USE, used, on);
 	}
 
 	public void createXML(XMLStreamWriter out) throws XMLStreamException
@@ -527,6 +606,18 @@ public class Quest implements GameListener
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Used to get the ids in the catalog of all the used objectives of its parents.
+	 *
+	 * @return The ids of the elements used.
+	 */
+	public ObjectiveIdSet getUsedObjectiveIds()
+	{
+		if(this.getParent() != null)
+			return this.getParent().getUsedObjectiveIds();
+		return ObjectiveIdSet.EMPTY;
+	}
+
 	/**
 	 * Used to set the description of the quest.
 	 *
@@ -544,6 +635,43 @@ public class Quest implements GameListener
 	 */
 	public void addActions(Action... actions)
 	{
-		Collections.addAll(this.actions, actions);
+		boolean wasDone;
+		synchronized(this)
+		{
+			wasDone = this.isDone();
+			for(Action action : actions)
+				if(this.actions.add(action))
+				{
+					this.positions.put(action, this.order.size());
+					this.order.add(action);
+					if(action.isDone())
+						this.doneCount++;
+				}
+			this.advance();
+			this.invalidateFrontier();
+		}
+		if(wasDone != this.isDone() && this.getParent() != null)
+			this.getParent().updateState();
+	}
+
+	/**
+	 * The action to do of a quest, with the number of changes of the quest when it has been found.
+	 */
+	private static class Frontier
+	{
+		private final long changes;
+		private final Action action;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param changes The number of changes of the quest.
+		 * @param action The action to do, null if none.
+		 */
+		Frontier(long changes, Action action)
+		{
+			this.changes = changes;
+			this.action = action;
+		}
 	}
 }
@@ -1,5 +1,7 @@
 package fr.polytech.di.questgenerator.objects;
 
+import fr.polytech.di.questgenerator.GeneratorContext;
+
 /**
  * The epsilon quest.
  * <p>
@@ -10,10 +12,11 @@ public class QuestEpsilon extends Quest
 	/**
 	 * Constructor.
 	 *
+	 * @param context The context of the generation.
 	 * @param parent The parent Action, null if none.
 	 */
-	public QuestEpsilon(Action parent)
+	public QuestEpsilon(GeneratorContext context, Action parent)
 	{
-		super(parent);
+		super(context, parent);
 	}
 }
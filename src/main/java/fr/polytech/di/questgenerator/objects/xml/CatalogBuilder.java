@@ -0,0 +1,373 @@
+package fr.polytech.di.questgenerator.objects.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Builds a catalog from categories and values given in any order, without creating the categories objects.
+ * Categories and values are kept in growing parallel arrays. When building, the categories are numbered in preorder and the values are placed by a counting sort on their category, so that each category and each subtree is a contiguous range.
+ * Categories with the same path are merged, and a value added again to a category replaces the weight of the previous one.
+ * Removed categories are only flagged, and removed values are recorded with the number of values added at that time, so that a value added again afterwards is kept. Both are dropped when building.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogBuilder implements CatalogSink
+{
+	private final ArrayList<String> names;
+	private final ArrayList<String> paths;
+	private final HashMap<String, Integer> indexes;
+	private final HashMap<Integer, HashMap<String, Integer>> removedValues;
+	private int[] parents;
+	private int[] firstChildren;
+	private int[] lastChildren;
+	private int[] nextSiblings;
+	private boolean[] removed;
+	private int firstRoot;
+	private int lastRoot;
+	private String[] values;
+	private int[] valueCategories;
+	private double[] valueWeights;
+	private int valueCount;
+
+	/**
+	 * Constructor.
+	 */
+	public CatalogBuilder()
+	{
+		this.names = new ArrayList<>();
+		this.paths = new ArrayList<>();
+		this.indexes = new HashMap<>();
+		this.removedValues = new HashMap<>();
+		this.parents = new int[16];
+		this.firstChildren = new int[16];
+		this.lastChildren = new int[16];
+		this.nextSiblings = new int[16];
+		this.removed = new boolean[16];
+		this.firstRoot = -1;
+		this.lastRoot = -1;
+		this.values = new String[256];
+		this.valueCategories = new int[256];
+		this.valueWeights = new double[256];
+	}
+
+	/**
+	 * Used to get a builder filled with existing categories.
+	 *
+	 * @param categories The root categories.
+	 * @return The builder.
+	 */
+	public static CatalogBuilder of(List<XMLStringObjectiveCategory> categories)
+	{
+		CatalogBuilder builder = new CatalogBuilder();
+		for(XMLStringObjectiveCategory category : categories)
+			builder.add(-1, category);
+		return builder;
+	}
+
+	/**
+	 * Add a category, its values and its subcategories.
+	 *
+	 * @param parent The index of the parent category, -1 if none.
+	 * @param category The category to add.
+	 */
+	private void add(int parent, XMLStringObjectiveCategory category)
+	{
+		int index = addCategory(parent, category.getName());
+		for(XMLStringObjectiveElement element : category.getAllValues(false))
+			addValue(index, element.getValue(), element.getWeight());
+		for(XMLStringObjectiveCategory subcategory : category.getSubCategories())
+			add(index, subcategory);
+	}
+
+	/**
+	 * Used to get the path of a category.
+	 *
+	 * @param parent The index of the parent category, -1 if none.
+	 * @param name The name of the category.
+	 * @return The path.
+	 */
+	private String getPath(int parent, String name)
+	{
+		return parent < 0 ? name : (this.paths.get(parent) + "/" + name);
+	}
+
+	@Override
+	public int addCategory(int parent, String name)
+	{
+		String path = getPath(parent, name);
+		Integer existing = this.indexes.get(path);
+		if(existing != null)
+			return existing;
+		int index = this.names.size();
+		if(index == this.parents.length)
+		{
+			int size = index * 2;
+			this.parents = Arrays.copyOf(this.parents, size);
+			this.firstChildren = Arrays.copyOf(this.firstChildren, size);
+			this.lastChildren = Arrays.copyOf(this.lastChildren, size);
+			this.nextSiblings = Arrays.copyOf(this.nextSiblings, size);
+			this.removed = Arrays.copyOf(this.removed, size);
+		}
+		this.names.add(name);
+		this.paths.add(path);
+		this.indexes.put(path, index);
+		this.parents[index] = parent;
+		this.firstChildren[index] = -1;
+		this.lastChildren[index] = -1;
+		this.nextSiblings[index] = -1;
+		if(parent < 0)
+		{
+			if(this.lastRoot < 0)
+				this.firstRoot = index;
+			else
+				this.nextSiblings[this.lastRoot] = index;
+			this.lastRoot = index;
+		}
+		else
+		{
+			if(this.lastChildren[parent] < 0)
+				this.firstChildren[parent] = index;
+			else
+				this.nextSiblings[this.lastChildren[parent]] = index;
+			this.lastChildren[parent] = index;
+		}
+		return index;
+	}
+
+	@Override
+	public void removeCategory(int parent, String name)
+	{
+		Integer index = this.indexes.get(getPath(parent, name));
+		if(index == null)
+			return;
+		int[] stack = new int[16];
+		int top = 0;
+		stack[top++] = index;
+		while(top > 0)
+		{
+			int category = stack[--top];
+			this.removed[category] = true;
+			this.indexes.remove(this.paths.get(category));
+			for(int child = this.firstChildren[category]; child >= 0; child = this.nextSiblings[child])
+			{
+				if(top == stack.length)
+					stack = Arrays.copyOf(stack, top * 2);
+				stack[top++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Add a value to a category.
+	 *
+	 * @param category The index of the category.
+	 * @param value The value.
+	 */
+	public void addValue(int category, String value)
+	{
+		addValue(category, value, XMLStringObjectiveElement.DEFAULT_WEIGHT);
+	}
+
+	@Override
+	public void addValue(int category, String value, double weight)
+	{
+		if(!(weight > 0) || Double.isInfinite(weight))
+			throw new IllegalArgumentException("Weight of " + this.paths.get(category) + "/" + value + " must be positive, got " + weight);
+		if(this.valueCount == this.values.length)
+		{
+			this.values = Arrays.copyOf(this.values, this.valueCount * 2);
+			this.valueCategories = Arrays.copyOf(this.valueCategories, this.valueCount * 2);
+			this.valueWeights = Arrays.copyOf(this.valueWeights, this.valueCount * 2);
+		}
+		this.values[this.valueCount] = value;
+		this.valueCategories[this.valueCount] = category;
+		this.valueWeights[this.valueCount] = weight;
+		this.valueCount++;
+	}
+
+	@Override
+	public void removeValue(int category, String value)
+	{
+		this.removedValues.computeIfAbsent(category, key -> new HashMap<>()).put(value, this.valueCount);
+	}
+
+	/**
+	 * Used to get the number of values added.
+	 *
+	 * @return The number of values.
+	 */
+	public int getValueCount()
+	{
+		return this.valueCount;
+	}
+
+	/**
+	 * Build the catalog.
+	 *
+	 * @return The catalog.
+	 */
+	public XMLStringObjectiveCatalog build()
+	{
+		return new XMLStringObjectiveCatalog(compile());
+	}
+
+	/**
+	 * Compile the categories and values into the arrays of a catalog.
+	 *
+	 * @return The compiled arrays.
+	 */
+	Compiled compile()
+	{
+		int added = this.names.size();
+		int[] order = new int[added];
+		int[] ranks = new int[added];
+		Arrays.fill(ranks, -1);
+		int[] subtreeEnds = new int[added];
+		int rank = 0;
+		int[] stack = new int[added + 1];
+		int top = 0;
+		for(int root = this.firstRoot; root >= 0; root = this.nextSiblings[root])
+		{
+			if(this.removed[root])
+				continue;
+			stack[top++] = root;
+			while(top > 0)
+			{
+				int category = stack[top - 1];
+				if(category >= 0)
+				{
+					ranks[category] = rank;
+					order[rank++] = category;
+					stack[top - 1] = -category - 1;
+					int children = 0;
+					for(int child = this.firstChildren[category]; child >= 0; child = this.nextSiblings[child])
+						if(!this.removed[child])
+							children++;
+					int position = top + children;
+					for(int child = this.firstChildren[category]; child >= 0; child = this.nextSiblings[child])
+						if(!this.removed[child])
+							stack[--position] = child;
+					top += children;
+				}
+				else
+				{
+					subtreeEnds[-category - 1] = rank;
+					top--;
+				}
+			}
+		}
+		int count = rank;
+		int[] starts = new int[count + 1];
+		for(int i = 0; i < this.valueCount; i++)
+			if(ranks[this.valueCategories[i]] >= 0)
+				starts[ranks[this.valueCategories[i]] + 1]++;
+		for(int i = 0; i < count; i++)
+			starts[i + 1] += starts[i];
+		String[] sorted = new String[starts[count]];
+		double[] sortedWeights = new double[starts[count]];
+		int[] sortedPositions = this.removedValues.isEmpty() ? null : new int[starts[count]];
+		int[] positions = Arrays.copyOf(starts, count);
+		for(int i = 0; i < this.valueCount; i++)
+		{
+			int category = ranks[this.valueCategories[i]];
+			if(category < 0)
+				continue;
+			int position = positions[category]++;
+			sorted[position] = this.values[i];
+			sortedWeights[position] = this.valueWeights[i];
+			if(sortedPositions != null)
+				sortedPositions[position] = i;
+		}
+		String[] elementPaths = new String[sorted.length];
+		String[] elementValues = new String[sorted.length];
+		double[] elementWeights = new double[sorted.length];
+		int[] ownStarts = new int[count];
+		int[] ownEnds = new int[count];
+		int size = 0;
+		HashMap<String, Integer> seen = new HashMap<>();
+		for(int r = 0; r < count; r++)
+		{
+			String path = this.paths.get(order[r]);
+			HashMap<String, Integer> removedValues = this.removedValues.get(order[r]);
+			ownStarts[r] = size;
+			seen.clear();
+			for(int i = starts[r]; i < starts[r + 1]; i++)
+			{
+				if(removedValues != null)
+				{
+					Integer removedAt = removedValues.get(sorted[i]);
+					if(removedAt != null && removedAt > sortedPositions[i])
+						continue;
+				}
+				Integer previous = seen.putIfAbsent(sorted[i], size);
+				if(previous == null)
+				{
+					elementPaths[size] = path;
+					elementValues[size] = sorted[i];
+					elementWeights[size++] = sortedWeights[i];
+				}
+				else
+					elementWeights[previous] = sortedWeights[i];
+			}
+			ownEnds[r] = size;
+		}
+		String[] categoryNames = new String[count];
+		String[] categoryPaths = new String[count];
+		int[] categoryParents = new int[count];
+		int[] ends = new int[count];
+		for(int r = 0; r < count; r++)
+		{
+			int category = order[r];
+			categoryNames[r] = this.names.get(category);
+			categoryPaths[r] = this.paths.get(category);
+			categoryParents[r] = this.parents[category] < 0 ? -1 : ranks[this.parents[category]];
+			ends[r] = subtreeEnds[category] < count ? ownStarts[subtreeEnds[category]] : size;
+		}
+		return new Compiled(categoryNames, categoryPaths, categoryParents, ownStarts, ownEnds, ends, Arrays.copyOf(elementPaths, size), Arrays.copyOf(elementValues, size), Arrays.copyOf(elementWeights, size));
+	}
+
+	/**
+	 * The arrays of a catalog. The categories are in preorder, with their own values and the values of their subtree being contiguous ranges of the elements.
+	 * The elements are given by their path, value and weight, the catalog creating them with their id.
+	 */
+	static class Compiled
+	{
+		final String[] names;
+		final String[] paths;
+		final int[] parents;
+		final int[] starts;
+		final int[] ownEnds;
+		final int[] ends;
+		final String[] elementPaths;
+		final String[] elementValues;
+		final double[] elementWeights;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param names The names of the categories.
+		 * @param paths The paths of the categories.
+		 * @param parents The index of the parent of each category, -1 for a root category.
+		 * @param starts The index of the first value of each category.
+		 * @param ownEnds The index after the last own value of each category.
+		 * @param ends The index after the last value of the subtree of each category.
+		 * @param elementPaths The path of each element.
+		 * @param elementValues The value of each element, without duplicates in a category.
+		 * @param elementWeights The weight of each element.
+		 */
+		Compiled(String[] names, String[] paths, int[] parents, int[] starts, int[] ownEnds, int[] ends, String[] elementPaths, String[] elementValues, double[] elementWeights)
+		{
+			this.names = names;
+			this.paths = paths;
+			this.parents = parents;
+			this.starts = starts;
+			this.ownEnds = ownEnds;
+			this.ends = ends;
+			this.elementPaths = elementPaths;
+			this.elementValues = elementValues;
+			this.elementWeights = elementWeights;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package fr.polytech.di.questgenerator.objects.xml;
+
+import java.util.Arrays;
+
+/**
+ * Records the content of a catalog file in the order it has been read, so that files can be read in parallel and then applied one after the other on a same builder.
+ * Categories are numbered in the layer and mapped to the indexes of the builder when replayed.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+class CatalogLayer implements CatalogSink
+{
+	private static final byte ADD_CATEGORY = 0;
+	private static final byte REMOVE_CATEGORY = 1;
+	private static final byte ADD_VALUE = 2;
+	private static final byte REMOVE_VALUE = 3;
+	private byte[] operations;
+	private int[] categories;
+	private String[] names;
+	private double[] weights;
+	private int size;
+	private int categoryCount;
+	private int valueCount;
+
+	/**
+	 * Constructor.
+	 */
+	CatalogLayer()
+	{
+		this.operations = new byte[64];
+		this.categories = new int[64];
+		this.names = new String[64];
+		this.weights = new double[64];
+	}
+
+	/**
+	 * Record an operation.
+	 *
+	 * @param operation The operation.
+	 * @param category The category, or the parent category, of the operation.
+	 * @param name The name of the category or the value.
+	 * @param weight The weight of the value.
+	 */
+	private void record(byte operation, int category, String name, double weight)
+	{
+		if(this.size == this.operations.length)
+		{
+			int length = this.size * 2;
+			this.operations = Arrays.copyOf(this.operations, length);
+			this.categories = Arrays.copyOf(this.categories, length);
+			this.names = Arrays.copyOf(this.names, length);
+			this.weights = Arrays.copyOf(this.weights, length);
+		}
+		this.operations[this.size] = operation;
+		this.categories[this.size] = category;
+		this.names[this.size] = name;
+		this.weights[this.size] = weight;
+		this.size++;
+	}
+
+	@Override
+	public int addCategory(int parent, String name)
+	{
+		record(ADD_CATEGORY, parent, name, 0);
+		return this.categoryCount++;
+	}
+
+	@Override
+	public void removeCategory(int parent, String name)
+	{
+		record(REMOVE_CATEGORY, parent, name, 0);
+	}
+
+	@Override
+	public void addValue(int category, String value, double weight)
+	{
+		record(ADD_VALUE, category, value, weight);
+		this.valueCount++;
+	}
+
+	@Override
+	public void removeValue(int category, String value)
+	{
+		record(REMOVE_VALUE, category, value, 0);
+	}
+
+	/**
+	 * Used to get the number of values added.
+	 *
+	 * @return The number of values.
+	 */
+	int getValueCount()
+	{
+		return this.valueCount;
+	}
+
+	/**
+	 * Apply the recorded operations, in order.
+	 *
+	 * @param sink The sink to apply the operations to.
+	 */
+	void replay(CatalogSink sink)
+	{
+		int[] mapped = new int[this.categoryCount];
+		int category = 0;
+		for(int i = 0; i < this.size; i++)
+		{
+			int target = this.categories[i] < 0 ? -1 : mapped[this.categories[i]];
+			switch(this.operations[i])
+			{
+				case ADD_CATEGORY:
+					mapped[category++] = sink.addCategory(target, this.names[i]);
+					break;
+				case REMOVE_CATEGORY:
+					sink.removeCategory(target, this.names[i]);
+					break;
+				case ADD_VALUE:
+					sink.addValue(target, this.names[i], this.weights[i]);
+					break;
+				case REMOVE_VALUE:
+					sink.removeValue(target, this.names[i]);
+					break;
+			}
+		}
+	}
+}
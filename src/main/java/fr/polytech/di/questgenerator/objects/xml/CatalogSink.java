@@ -0,0 +1,44 @@
+package fr.polytech.di.questgenerator.objects.xml;
+
+/**
+ * Receives the content of a catalog file while it is read.
+ * Categories are designated by the index returned when they have been added.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+interface CatalogSink
+{
+	/**
+	 * Add a category. If a category with the same path already exists, its content is kept and it is returned instead.
+	 *
+	 * @param parent The index of the parent category, -1 if none.
+	 * @param name The name of the category.
+	 * @return The index of the category.
+	 */
+	int addCategory(int parent, String name);
+
+	/**
+	 * Remove a category, its values and its subcategories, if it exists.
+	 *
+	 * @param parent The index of the parent category, -1 if none.
+	 * @param name The name of the category.
+	 */
+	void removeCategory(int parent, String name);
+
+	/**
+	 * Add a value to a category. If the category already has this value, its weight is replaced.
+	 *
+	 * @param category The index of the category.
+	 * @param value The value.
+	 * @param weight The weight of the value, must be positive.
+	 */
+	void addValue(int category, String value, double weight);
+
+	/**
+	 * Remove a value from a category, if present.
+	 *
+	 * @param category The index of the category.
+	 * @param value The value.
+	 */
+	void removeValue(int category, String value);
+}
@@ -0,0 +1,460 @@
+package fr.polytech.di.questgenerator.objects.xml;
+
+import fr.polytech.di.questgenerator.objects.AliasTable;
+import fr.polytech.di.questgenerator.objects.ObjectiveIdSet;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represent all the categories read from an objective xml file.
+ * The categories are compiled by a {@link CatalogBuilder} into one array of elements in preorder (values of a category, then its subcategories), so that the values of a category, with or without its subcategories, are a contiguous range of it.
+ * Elements are interned: the catalog creates one element for each path and value. The id of each element is its index in this array, so that a set of elements can be represented by an ObjectiveIdSet.
+ * Elements are drawn with a probability proportional to their weight. For each category, and each category with its subcategories, that has weighted elements, an alias table is built so that a weighted draw is done in constant time as a uniform one.
+ * A catalog is immutable once built. Each catalog gets a new version, so that a quest can tell which catalog it has been generated from.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class XMLStringObjectiveCatalog
+{
+	private static final String SUBCATEGORIES_SUFFIX = "/*";
+	private static final int MAX_REJECTIONS = 16;
+	private static final AtomicLong versions = new AtomicLong();
+	private final long version;
+	private final String[] categoryNames;
+	private final int[] categoryParents;
+	private final Range[] categoryRanges;
+	private final XMLStringObjectiveElement[] elements;
+	private final HashMap<String, Range> ranges;
+	private volatile List<XMLStringObjectiveCategory> categories;
+	private volatile HashMap<String, HashMap<String, XMLStringObjectiveElement>> index;
+	private volatile XMLStringObjectiveElement[] sorted;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param categories The root categories of the catalog.
+	 */
+	public XMLStringObjectiveCatalog(List<XMLStringObjectiveCategory> categories)
+	{
+		this(CatalogBuilder.of(categories).compile());
+		this.categories = categories;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param compiled The arrays compiled by a CatalogBuilder.
+	 */
+	XMLStringObjectiveCatalog(CatalogBuilder.Compiled compiled)
+	{
+		this.version = versions.incrementAndGet();
+		this.categoryNames = compiled.names;
+		this.categoryParents = compiled.parents;
+		this.elements = new XMLStringObjectiveElement[compiled.elementValues.length];
+		for(int i = 0; i < this.elements.length; i++)
+			this.elements[i] = new XMLStringObjectiveElement(compiled.elementPaths[i], compiled.elementValues[i], compiled.elementWeights[i], this, i);
+		this.categoryRanges = buildRanges(this.elements, compiled.starts, compiled.ownEnds);
+		this.ranges = new HashMap<>();
+		for(int i = 0; i < compiled.paths.length; i++)
+		{
+			this.ranges.put(compiled.paths[i], this.categoryRanges[i]);
+			this.ranges.put(compiled.paths[i] + SUBCATEGORIES_SUFFIX, new Range(this.elements, compiled.starts[i], compiled.ends[i]));
+		}
+	}
+
+	/**
+	 * Used to build the own values ranges of the categories.
+	 *
+	 * @param elements The elements.
+	 * @param starts The index of the first value of each category.
+	 * @param ownEnds The index after the last own value of each category.
+	 * @return The ranges.
+	 */
+	private static Range[] buildRanges(XMLStringObjectiveElement[] elements, int[] starts, int[] ownEnds)
+	{
+		Range[] ranges = new Range[starts.length];
+		for(int i = 0; i < ranges.length; i++)
+			ranges[i] = new Range(elements, starts[i], ownEnds[i]);
+		return ranges;
+	}
+
+	/**
+	 * Get a random element from the given categories.
+	 *
+	 * @param random The source of randomness.
+	 * @param blackList A list of the elements that can't be picked.
+	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
+	 * @return A random element.
+	 */
+	public XMLStringObjectiveElement getRandomFromCategories(SplittableRandom random, Collection<XMLStringObjectiveElement> blackList, String... categories)
+	{
+		return getRandomFromCategories(random, getIds(blackList), categories);
+	}
+
+	/**
+	 * Get a random element from the given categories, with a probability proportional to its weight.
+	 * Elements are drawn among the ranges of the categories until one isn't excluded. If too many draws are rejected, the remaining candidates are counted to select one directly.
+	 *
+	 * @param random The source of randomness.
+	 * @param excluded The ids of the elements that can't be picked.
+	 * @param categories The categories to get the element from (use xx/* to include all xx subcategories).
+	 * @return A random element.
+	 */
+	public XMLStringObjectiveElement getRandomFromCategories(SplittableRandom random, ObjectiveIdSet excluded, String... categories)
+	{
+		int total = 0;
+		double totalWeight = 0;
+		boolean weighted = false;
+		for(String category : categories)
+		{
+			Range range = this.ranges.get(category);
+			if(range != null)
+			{
+				total += range.size();
+				totalWeight += range.weight;
+				weighted |= range.alias != null;
+			}
+		}
+		if(total > 0)
+		{
+			for(int i = 0; i < MAX_REJECTIONS; i++)
+			{
+				XMLStringObjectiveElement element = weighted ? getWeightedCandidate(categories, random, totalWeight) : getCandidate(categories, random.nextInt(total));
+				if(!excluded.contains(element.getId()))
+					return element;
+			}
+			double allowed = 0;
+			for(String category : categories)
+			{
+				Range range = this.ranges.get(category);
+				if(range != null)
+					for(int i = excluded.nextAbsent(range.start); i < range.end; i = excluded.nextAbsent(i + 1))
+						allowed += weighted ? this.elements[i].getWeight() : 1;
+			}
+			if(allowed > 0)
+			{
+				double picked = weighted ? random.nextDouble() * allowed : random.nextInt((int) allowed);
+				XMLStringObjectiveElement last = null;
+				for(String category : categories)
+				{
+					Range range = this.ranges.get(category);
+					if(range != null)
+						for(int i = excluded.nextAbsent(range.start); i < range.end; i = excluded.nextAbsent(i + 1))
+						{
+							last = this.elements[i];
+							if((picked -= weighted ? last.getWeight() : 1) < 0)
+								return last;
+						}
+				}
+				return last;
+			}
+		}
+		return new XMLStringObjectiveElement("", Arrays.toString(categories) + " - " + random.nextInt(1000));
+	}
+
+	/**
+	 * Get a candidate among the elements of the given categories, as if they were concatenated.
+	 *
+	 * @param categories The categories.
+	 * @param index The index of the candidate.
+	 * @return The candidate.
+	 */
+	private XMLStringObjectiveElement getCandidate(String[] categories, int index)
+	{
+		for(String category : categories)
+		{
+			Range range = this.ranges.get(category);
+			if(range == null)
+				continue;
+			if(index < range.size())
+				return this.elements[range.start + index];
+			index -= range.size();
+		}
+		throw new IndexOutOfBoundsException("Index " + index + " out of the categories " + Arrays.toString(categories));
+	}
+
+	/**
+	 * Get a candidate among the elements of the given categories, with a probability proportional to its weight.
+	 * A category is chosen with a probability proportional to the weight of its range, then an element of it with its alias table.
+	 *
+	 * @param categories The categories.
+	 * @param random The source of randomness.
+	 * @param totalWeight The sum of the weights of the ranges of the categories.
+	 * @return The candidate.
+	 */
+	private XMLStringObjectiveElement getWeightedCandidate(String[] categories, SplittableRandom random, double totalWeight)
+	{
+		Range chosen = null;
+		if(categories.length == 1)
+			chosen = this.ranges.get(categories[0]);
+		else
+		{
+			double picked = random.nextDouble() * totalWeight;
+			for(String category : categories)
+			{
+				Range range = this.ranges.get(category);
+				if(range == null || range.size() == 0)
+					continue;
+				chosen = range;
+				if((picked -= range.weight) < 0)
+					break;
+			}
+		}
+		return this.elements[chosen.sample(random)];
+	}
+
+	/**
+	 * Used to know if an element of this catalog is in the given path, by testing if its id is in the range of the path.
+	 *
+	 * @param element The element to test.
+	 * @param path The path to test (use xx/* to include all xx subcategories).
+	 * @return 1 if in, 0 if not, -1 if the path isn't a category of this catalog.
+	 */
+	int isInPath(XMLStringObjectiveElement element, String path)
+	{
+		Range range = this.ranges.get(path);
+		if(range == null)
+			return -1;
+		return element.getId() >= range.start && element.getId() < range.end ? 1 : 0;
+	}
+
+	/**
+	 * Used to get the ids of the given elements. Elements that aren't part of this catalog are replaced by the equal one of it, if any.
+	 *
+	 * @param elements The elements.
+	 * @return The ids.
+	 */
+	public ObjectiveIdSet getIds(Collection<XMLStringObjectiveElement> elements)
+	{
+		ObjectiveIdSet ids = ObjectiveIdSet.EMPTY;
+		for(XMLStringObjectiveElement element : elements)
+		{
+			XMLStringObjectiveElement interned = contains(element) ? element : getElement(element.getPath(), element.getValue());
+			if(interned != null)
+				ids = ids.with(interned.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Used to know if an element is part of this catalog.
+	 *
+	 * @param element The element to test.
+	 * @return True if part of it, false if not.
+	 */
+	public boolean contains(XMLStringObjectiveElement element)
+	{
+		return element.getCatalog() == this;
+	}
+
+	/**
+	 * Used to get all the XML elements sorted by value. They are sorted once, the first time they are asked.
+	 *
+	 * @return The elements, as an unmodifiable list.
+	 */
+	public List<XMLStringObjectiveElement> getAllSorted()
+	{
+		return Collections.unmodifiableList(Arrays.asList(getSorted()));
+	}
+
+	/**
+	 * Used to get the elements whose value starts with the given prefix, sorted by value.
+	 * The range of the elements is found by binary search in the sorted elements.
+	 *
+	 * @param prefix The prefix of the values.
+	 * @return The elements, as an unmodifiable list.
+	 */
+	public List<XMLStringObjectiveElement> getByPrefix(String prefix)
+	{
+		XMLStringObjectiveElement[] sorted = getSorted();
+		int low = 0;
+		int high = sorted.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(sorted[middle].getValue().compareTo(prefix) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		int start = low;
+		high = sorted.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(sorted[middle].getValue().startsWith(prefix))
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return Collections.unmodifiableList(Arrays.asList(sorted).subList(start, low));
+	}
+
+	/**
+	 * Used to get the elements sorted by value, sorting them the first time.
+	 *
+	 * @return The sorted elements.
+	 */
+	private XMLStringObjectiveElement[] getSorted()
+	{
+		XMLStringObjectiveElement[] sorted = this.sorted;
+		if(sorted == null)
+		{
+			sorted = this.elements.clone();
+			Arrays.sort(sorted);
+			this.sorted = sorted;
+		}
+		return sorted;
+	}
+
+	/**
+	 * Get an element by its id.
+	 *
+	 * @param id The id of the element.
+	 * @return The element, null if there is no element with this id.
+	 */
+	public XMLStringObjectiveElement getElement(int id)
+	{
+		return id >= 0 && id < this.elements.length ? this.elements[id] : null;
+	}
+
+	/**
+	 * Get a specified element by its path and value.
+	 * Elements are found with a hash index by path then value, built the first time an element is asked.
+	 *
+	 * @param path The path of th element.
+	 * @param value The value of the element.
+	 * @return The specified element, null if not found.
+	 */
+	public XMLStringObjectiveElement getElement(String path, String value)
+	{
+		HashMap<String, HashMap<String, XMLStringObjectiveElement>> index = this.index;
+		if(index == null)
+		{
+			index = new HashMap<>();
+			for(int i = 0; i < this.categoryRanges.length; i++)
+			{
+				Range range = this.categoryRanges[i];
+				if(range.size() == 0)
+					continue;
+				HashMap<String, XMLStringObjectiveElement> values = new HashMap<>(range.size() * 4 / 3 + 1);
+				for(int j = range.start; j < range.end; j++)
+					values.put(this.elements[j].getValue(), this.elements[j]);
+				index.put(this.elements[range.start].getPath(), values);
+			}
+			this.index = index;
+		}
+		HashMap<String, XMLStringObjectiveElement> values = index.get(path);
+		return values == null ? null : values.get(value);
+	}
+
+	/**
+	 * Used to get the version of the catalog. Versions increase with each catalog built.
+	 *
+	 * @return The version.
+	 */
+	public long getVersion()
+	{
+		return this.version;
+	}
+
+	/**
+	 * Used to get the number of elements.
+	 *
+	 * @return The number of elements.
+	 */
+	public int size()
+	{
+		return this.elements.length;
+	}
+
+	/**
+	 * Get the root categories. If the catalog hasn't been created from categories, they are built from the compiled arrays the first time.
+	 *
+	 * @return The categories.
+	 */
+	public List<XMLStringObjectiveCategory> getCategories()
+	{
+		List<XMLStringObjectiveCategory> categories = this.categories;
+		if(categories == null)
+		{
+			ArrayList<XMLStringObjectiveCategory> roots = new ArrayList<>();
+			XMLStringObjectiveCategory[] built = new XMLStringObjectiveCategory[this.categoryNames.length];
+			for(int i = 0; i < built.length; i++)
+			{
+				int parent = this.categoryParents[i];
+				built[i] = new XMLStringObjectiveCategory(parent < 0 ? null : built[parent], this.categoryNames[i]);
+				if(parent < 0)
+					roots.add(built[i]);
+				else
+					built[parent].addSubcategory(built[i]);
+				for(int j = this.categoryRanges[i].start; j < this.categoryRanges[i].end; j++)
+					built[i].addValue(this.elements[j].getValue(), this.elements[j].getWeight());
+			}
+			this.categories = categories = roots;
+		}
+		return categories;
+	}
+
+	/**
+	 * A range of the elements array, with the sum of the weights of its elements and their alias table if they don't all have the default weight.
+	 */
+	private static class Range
+	{
+		private final int start;
+		private final int end;
+		private final double weight;
+		private final AliasTable alias;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param elements The elements.
+		 * @param start The first index, included.
+		 * @param end The last index, excluded.
+		 */
+		Range(XMLStringObjectiveElement[] elements, int start, int end)
+		{
+			this.start = start;
+			this.end = end;
+			double weight = 0;
+			boolean weighted = false;
+			for(int i = start; i < end; i++)
+			{
+				weight += elements[i].getWeight();
+				weighted |= elements[i].getWeight() != XMLStringObjectiveElement.DEFAULT_WEIGHT;
+			}
+			this.weight = weight;
+			if(weighted)
+			{
+				double[] weights = new double[end - start];
+				for(int i = start; i < end; i++)
+					weights[i - start] = elements[i].getWeight();
+				this.alias = new AliasTable(weights);
+			}
+			else
+				this.alias = null;
+		}
+
+		/**
+		 * Draw the index of an element of the range, with a probability proportional to its weight.
+		 *
+		 * @param random The source of randomness.
+		 * @return The index.
+		 */
+		int sample(SplittableRandom random)
+		{
+			return this.start + (this.alias == null ? random.nextInt(size()) : this.alias.sample(random));
+		}
+
+		/**
+		 * Used to get the number of elements in the range.
+		 *
+		 * @return The size.
+		 */
+		int size()
+		{
+			return this.end - this.start;
+		}
+	}
+}
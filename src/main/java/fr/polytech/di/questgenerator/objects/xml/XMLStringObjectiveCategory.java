@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 /**
  * Represent a category in the objective xml file.
@@ -14,6 +14,7 @@ import java.util.concurrent.ThreadLocalRandom;
 public class XMLStringObjectiveCategory
 {
 	private final String name;
+	private final String path;
 	private final ArrayList<XMLStringObjectiveElement> values;
 	private final ArrayList<XMLStringObjectiveCategory> subcategories;
 	private final XMLStringObjectiveCategory parent;
@@ -28,6 +29,7 @@ public class XMLStringObjectiveCategory
 	{
 		this.parent = parent;
 		this.name = name;
+		this.path = parent == null ? name : (parent.getPath() + "/" + name);
 		this.values = new ArrayList<>();
 		this.subcategories = new ArrayList<>();
 	}
@@ -72,7 +74,18 @@ public class XMLStringObjectiveCategory
 	 */
 	public void addValue(String value)
 	{
-		this.values.add(new XMLStringObjectiveElement(this.getPath(), value));
+		addValue(value, XMLStringObjectiveElement.DEFAULT_WEIGHT);
+	}
+
+	/**
+	 * Add a value to this category.
+	 *
+	 * @param value The value to add.
+	 * @param weight The weight of the value.
+	 */
+	public void addValue(String value, double weight)
+	{
+		this.values.add(new XMLStringObjectiveElement(this.getPath(), value, weight));
 	}
 
 	/**
@@ -96,22 +109,29 @@ public class XMLStringObjectiveCategory
 	}
 
 	/**
-	 * Get a random element among its values.
+	 * Get a random element among its values, with a probability proportional to its weight.
 	 *
+	 * @param random The source of randomness.
 	 * @param allowSubcategories Allow to include subcategories' values or not.
 	 * @return A random value.
 	 */
-	public XMLStringObjectiveElement getRandomElement(boolean allowSubcategories)
+	public XMLStringObjectiveElement getRandomElement(SplittableRandom random, boolean allowSubcategories)
 	{
-		if(allowSubcategories)
+		List<XMLStringObjectiveElement> candidates = getAllValues(allowSubcategories);
+		double total = 0;
+		boolean weighted = false;
+		for(XMLStringObjectiveElement candidate : candidates)
 		{
-			ArrayList<XMLStringObjectiveElement> candidates = new ArrayList<>();
-			candidates.addAll(getAllValues(false));
-			for(XMLStringObjectiveCategory category : subcategories)
-				candidates.addAll(category.getAllValues(true));
-			return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+			total += candidate.getWeight();
+			weighted |= candidate.getWeight() != XMLStringObjectiveElement.DEFAULT_WEIGHT;
 		}
-		return this.values.get(ThreadLocalRandom.current().nextInt(this.values.size()));
+		if(!weighted)
+			return candidates.get(random.nextInt(candidates.size()));
+		double picked = random.nextDouble() * total;
+		for(XMLStringObjectiveElement candidate : candidates)
+			if((picked -= candidate.getWeight()) < 0)
+				return candidate;
+		return candidates.get(candidates.size() - 1);
 	}
 
 	/**
@@ -133,6 +153,16 @@ public class XMLStringObjectiveCategory
 		return this.values;
 	}
 
+	/**
+	 * Get the parent category.
+	 *
+	 * @return The parent, null if this is a root category.
+	 */
+	public XMLStringObjectiveCategory getParent()
+	{
+		return this.parent;
+	}
+
 	/**
 	 * Get the subcategories.
 	 *
@@ -150,13 +180,13 @@ public class XMLStringObjectiveCategory
 	}
 
 	/**
-	 * Used to get the path of this category.
+	 * Used to get the path of this category. It is computed once and shared by the elements of the category.
 	 *
 	 * @return The path.
 	 */
 	public String getPath()
 	{
-		return parent == null ? this.name : (parent.getPath() + "/" + this.name);
+		return this.path;
 	}
 
 	/**
@@ -1,16 +1,24 @@
 package fr.polytech.di.questgenerator.objects.xml;
 
-import fr.polytech.di.questgenerator.QuestGenerator;
-
 /**
  * Represent an element in the objective xml file.
+ * Two elements are equal if they have the same path and value. The elements of a catalog are interned, so two elements of the same catalog are equal only if they are the same instance.
+ * An element is immutable: the elements of a catalog are created by it with their id, so their equality and hash code never change.
  * <p>
  * Created by COUCHOUD Thomas & COLEAU Victor.
  */
 public class XMLStringObjectiveElement implements Comparable<XMLStringObjectiveElement>
 {
+	/**
+	 * Weight of the elements without a weight attribute.
+	 */
+	public static final double DEFAULT_WEIGHT = 1;
 	private final String value;
 	private final String path;
+	private final double weight;
+	private final int hash;
+	private final XMLStringObjectiveCatalog catalog;
+	private final int id;
 
 	/**
 	 * Constructor.
@@ -20,8 +28,40 @@ public class XMLStringObjectiveElement implements Comparable<XMLStringObjectiveE
 	 */
 	public XMLStringObjectiveElement(String path, String value)
 	{
+		this(path, value, DEFAULT_WEIGHT);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param path The path of the element.
+	 * @param value The value of the element.
+	 * @param weight The weight of the element when drawn among the other elements, must be positive.
+	 */
+	public XMLStringObjectiveElement(String path, String value, double weight)
+	{
+		this(path, value, weight, null, -1);
+	}
+
+	/**
+	 * Constructor, used by a catalog to create the canonical instance of a path and value.
+	 *
+	 * @param path The path of the element.
+	 * @param value The value of the element.
+	 * @param weight The weight of the element when drawn among the other elements, must be positive.
+	 * @param catalog The catalog of the element, null if none.
+	 * @param id The id of the element in the catalog, -1 if none.
+	 */
+	XMLStringObjectiveElement(String path, String value, double weight, XMLStringObjectiveCatalog catalog, int id)
+	{
+		if(!(weight > 0) || Double.isInfinite(weight))
+			throw new IllegalArgumentException("Weight of " + path + "/" + value + " must be positive, got " + weight);
 		this.path = path;
 		this.value = value;
+		this.weight = weight;
+		this.hash = 31 * path.hashCode() + value.hashCode();
+		this.catalog = catalog;
+		this.id = id;
 	}
 
 	@Override
@@ -37,24 +77,50 @@ public class XMLStringObjectiveElement implements Comparable<XMLStringObjectiveE
 	 */
 	public String getValue()
 	{
-		if(QuestGenerator.getDebug())
-		{
-			if(this.path.equals("class"))
-				return "{" + this.value + "}";
-			return "[(" + this.path + ") " + this.value + "]";
-		}
 		return this.value;
 	}
 
+	/**
+	 * Used to get the weight of the element. An element is drawn with a probability proportional to its weight.
+	 *
+	 * @return The weight.
+	 */
+	public double getWeight()
+	{
+		return this.weight;
+	}
+
+	/**
+	 * Used to get the value of the element decorated with its path, to be displayed in debug mode.
+	 *
+	 * @return The debug value.
+	 */
+	public String getDebugValue()
+	{
+		if(this.path.equals("class"))
+			return "{" + this.value + "}";
+		return "[(" + this.path + ") " + this.value + "]";
+	}
+
 	/**
 	 * Used to know if this element is in the given path.
+	 * For an element of a catalog, this is a check of its id against the range of the path in the catalog. Otherwise the paths are compared, xx/* matching xx and its subcategories only: a/b/* matches a/b and a/b/c, but not a/bc.
 	 *
-	 * @param path The path to test.
+	 * @param path The path to test (use xx/* to include all xx subcategories).
 	 * @return True if in, false if not.
 	 */
 	public boolean isInPath(String path)
 	{
-		return path.endsWith("/*") ? this.path.startsWith(path.substring(0, path.length() - "/*".length())) : this.path.equals(path);
+		if(this.catalog != null)
+		{
+			int inPath = this.catalog.isInPath(this, path);
+			if(inPath >= 0)
+				return inPath == 1;
+		}
+		if(!path.endsWith("/*"))
+			return this.path.equals(path);
+		String category = path.substring(0, path.length() - "/*".length());
+		return this.path.startsWith(category) && (this.path.length() == category.length() || this.path.charAt(category.length()) == '/');
 	}
 
 	/**
@@ -72,14 +138,57 @@ public class XMLStringObjectiveElement implements Comparable<XMLStringObjectiveE
 	}
 
 	/**
-	 * Used to know if two elements are the same.
+	 * Used to know if two elements are the same. Elements interned in the same catalog are compared by identity, the others by path and value.
 	 *
 	 * @param element The elements to test with.
 	 * @return True if equals, false if not.
 	 */
 	public boolean is(XMLStringObjectiveElement element)
 	{
-		return element != null && (element == this || (this.getValue().equals(element.getValue()) && this.getPath().equals(element.getPath())));
+		if(element == this)
+			return true;
+		if(element == null || (this.catalog != null && this.catalog == element.catalog))
+			return false;
+		return this.equals(element);
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o)
+			return true;
+		if(!(o instanceof XMLStringObjectiveElement))
+			return false;
+		XMLStringObjectiveElement element = (XMLStringObjectiveElement) o;
+		if(this.catalog != null && this.catalog == element.catalog)
+			return false;
+		return this.hash == element.hash && this.value.equals(element.value) && this.path.equals(element.path);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return this.hash;
+	}
+
+	/**
+	 * Used to get the id of this element, its index in the catalog it belongs to.
+	 *
+	 * @return The id, -1 if the element isn't part of a catalog.
+	 */
+	public int getId()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Used to get the catalog this element has been interned in.
+	 *
+	 * @return The catalog, null if none.
+	 */
+	public XMLStringObjectiveCatalog getCatalog()
+	{
+		return this.catalog;
 	}
 
 	/**
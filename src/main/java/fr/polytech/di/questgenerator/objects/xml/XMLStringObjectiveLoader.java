@@ -0,0 +1,287 @@
+package fr.polytech.di.questgenerator.objects.xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads an objectives xml file with a streaming parser, giving the categories and values directly to a {@link CatalogBuilder}.
+ * No category or element object is created while reading, only the strings and the arrays of the builder, so that very large files can be loaded.
+ * <p>
+ * Several files can be loaded as overlays of a base file: they are read in parallel and applied in order, categories being merged by path.
+ * The mode attribute of a category or an element tells how it is applied on the content read before:
+ * <ul>
+ * <li>add (default): the category is merged with the existing one, the element is added, replacing the weight of an existing one;</li>
+ * <li>override: the category replaces the existing one with its values and subcategories;</li>
+ * <li>remove: the category, or the element, is removed.</li>
+ * </ul>
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class XMLStringObjectiveLoader
+{
+	private static final XMLInputFactory factory = XMLInputFactory.newInstance();
+	private static final String MODE_ADD = "add";
+	private static final String MODE_OVERRIDE = "override";
+	private static final String MODE_REMOVE = "remove";
+	private int elementCount;
+	private long loadTime;
+
+	/**
+	 * Load a catalog.
+	 *
+	 * @param in The stream of the xml file. It isn't closed.
+	 * @return The catalog.
+	 * @throws XMLStreamException If the file couldn't be parsed.
+	 */
+	public XMLStringObjectiveCatalog load(InputStream in) throws XMLStreamException
+	{
+		long start = System.nanoTime();
+		CatalogBuilder builder = new CatalogBuilder();
+		parse(in, builder);
+		XMLStringObjectiveCatalog catalog = builder.build();
+		this.elementCount = builder.getValueCount();
+		this.loadTime = System.nanoTime() - start;
+		return catalog;
+	}
+
+	/**
+	 * Load a catalog from a base file and overlays.
+	 * The base file is read directly into the builder while the overlays are read in parallel, each one into a layer. The layers are then applied in order, so that the merge costs as much as the number of elements of the overlays.
+	 *
+	 * @param sources The base file followed by the overlays, in the order they must be applied.
+	 * @return The catalog.
+	 * @throws IOException If a file couldn't be read.
+	 * @throws XMLStreamException If a file couldn't be parsed.
+	 */
+	public XMLStringObjectiveCatalog load(List<URL> sources) throws IOException, XMLStreamException
+	{
+		long start = System.nanoTime();
+		CatalogBuilder builder = new CatalogBuilder();
+		if(!sources.isEmpty())
+		{
+			List<ForkJoinTask<CatalogLayer>> overlays = new ArrayList<>();
+			for(URL source : sources.subList(1, sources.size()))
+				overlays.add(ForkJoinPool.commonPool().submit(() -> {
+					CatalogLayer layer = new CatalogLayer();
+					read(source, layer);
+					return layer;
+				}));
+			try
+			{
+				read(sources.get(0), builder);
+				for(ForkJoinTask<CatalogLayer> overlay : overlays)
+					getLayer(overlay).replay(builder);
+			}
+			finally
+			{
+				for(ForkJoinTask<CatalogLayer> overlay : overlays)
+					overlay.cancel(true);
+			}
+		}
+		XMLStringObjectiveCatalog catalog = builder.build();
+		this.elementCount = builder.getValueCount();
+		this.loadTime = System.nanoTime() - start;
+		return catalog;
+	}
+
+	/**
+	 * Wait for an overlay to be read.
+	 *
+	 * @param overlay The task reading the overlay.
+	 * @return The layer read.
+	 * @throws IOException If the file couldn't be read.
+	 * @throws XMLStreamException If the file couldn't be parsed.
+	 */
+	private static CatalogLayer getLayer(ForkJoinTask<CatalogLayer> overlay) throws IOException, XMLStreamException
+	{
+		try
+		{
+			return overlay.get();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading the overlays");
+		}
+		catch(ExecutionException e)
+		{
+			// The pool wraps the checked exceptions of a task in runtime exceptions, look for them in the causes.
+			for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
+			{
+				if(cause instanceof IOException)
+					throw (IOException) cause;
+				if(cause instanceof XMLStreamException)
+					throw (XMLStreamException) cause;
+			}
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Read a file.
+	 *
+	 * @param source The file.
+	 * @param sink Where to give the content of the file.
+	 * @throws IOException If the file couldn't be read.
+	 * @throws XMLStreamException If the file couldn't be parsed.
+	 */
+	private static void read(URL source, CatalogSink sink) throws IOException, XMLStreamException
+	{
+		try(InputStream in = new BufferedInputStream(source.openStream()))
+		{
+			parse(in, sink);
+		}
+		catch(XMLStreamException e)
+		{
+			throw new XMLStreamException(source + ": " + e.getMessage(), e.getLocation(), e);
+		}
+	}
+
+	/**
+	 * Parse a file.
+	 * The content of a removed category is ignored.
+	 *
+	 * @param in The stream of the xml file. It isn't closed.
+	 * @param sink Where to give the content of the file.
+	 * @throws XMLStreamException If the file couldn't be parsed.
+	 */
+	private static void parse(InputStream in, CatalogSink sink) throws XMLStreamException
+	{
+		int[] categories = new int[16];
+		int depth = 0;
+		XMLStreamReader reader;
+		synchronized(factory)
+		{
+			reader = factory.createXMLStreamReader(in);
+		}
+		try
+		{
+			while(reader.hasNext())
+			{
+				int event = reader.next();
+				if(event == XMLStreamConstants.START_ELEMENT)
+				{
+					String name = reader.getLocalName();
+					if("category".equals(name))
+					{
+						if(depth == categories.length)
+							categories = Arrays.copyOf(categories, depth * 2);
+						int parent = depth == 0 ? -1 : categories[depth - 1];
+						int index = -1;
+						if(depth == 0 || parent >= 0)
+						{
+							String value = reader.getAttributeValue(null, "value");
+							String mode = getMode(reader);
+							if(!MODE_ADD.equals(mode))
+								sink.removeCategory(parent, value);
+							if(!MODE_REMOVE.equals(mode))
+								index = sink.addCategory(parent, value);
+						}
+						categories[depth++] = index;
+					}
+					else if("element".equals(name) && depth > 0 && categories[depth - 1] >= 0)
+					{
+						if(MODE_REMOVE.equals(getMode(reader)))
+							sink.removeValue(categories[depth - 1], reader.getAttributeValue(null, "value"));
+						else
+							sink.addValue(categories[depth - 1], reader.getAttributeValue(null, "value"), getWeight(reader));
+					}
+				}
+				else if(event == XMLStreamConstants.END_ELEMENT && depth > 0 && "category".equals(reader.getLocalName()))
+					depth--;
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Used to get the mode of the category or element being read.
+	 *
+	 * @param reader The reader, on the start of a category or an element.
+	 * @return The mode, add if the mode attribute is missing.
+	 * @throws XMLStreamException If the mode isn't known.
+	 */
+	private static String getMode(XMLStreamReader reader) throws XMLStreamException
+	{
+		String mode = reader.getAttributeValue(null, "mode");
+		if(mode == null || MODE_ADD.equals(mode))
+			return MODE_ADD;
+		if(MODE_OVERRIDE.equals(mode) || MODE_REMOVE.equals(mode))
+			return mode;
+		throw new XMLStreamException("Invalid mode " + mode + ", must be " + MODE_ADD + ", " + MODE_OVERRIDE + " or " + MODE_REMOVE, reader.getLocation());
+	}
+
+	/**
+	 * Used to get the weight of the element being read.
+	 *
+	 * @param reader The reader, on the start of an element.
+	 * @return The weight, the default one if the element has no weight attribute.
+	 * @throws XMLStreamException If the weight isn't a positive number.
+	 */
+	private static double getWeight(XMLStreamReader reader) throws XMLStreamException
+	{
+		String weight = reader.getAttributeValue(null, "weight");
+		if(weight == null)
+			return XMLStringObjectiveElement.DEFAULT_WEIGHT;
+		try
+		{
+			double value = Double.parseDouble(weight);
+			if(value > 0 && !Double.isInfinite(value))
+				return value;
+		}
+		catch(NumberFormatException ignored)
+		{
+		}
+		throw new XMLStreamException("Invalid weight " + weight + ", must be a positive number", reader.getLocation());
+	}
+
+	/**
+	 * Used to get the number of elements read by the last load, including duplicates.
+	 *
+	 * @return The number of elements.
+	 */
+	public int getElementCount()
+	{
+		return this.elementCount;
+	}
+
+	/**
+	 * Used to get the time taken by the last load.
+	 *
+	 * @param unit The unit of the result.
+	 * @return The time.
+	 */
+	public long getLoadTime(TimeUnit unit)
+	{
+		return unit.convert(this.loadTime, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Used to get the throughput of the last load.
+	 *
+	 * @return The number of elements read per second.
+	 */
+	public double getThroughput()
+	{
+		return this.loadTime == 0 ? 0 : this.elementCount * 1e9 / this.loadTime;
+	}
+}
@@ -0,0 +1,33 @@
+package fr.polytech.di.questgenerator;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Prints the number of bytes allocated by the current thread for each generated quest.
+ * Usage: AllocationBenchmark [quests] [max depth]. It needs a HotSpot JVM, which can count the allocations of a thread.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class AllocationBenchmark
+{
+	/**
+	 * Main method.
+	 *
+	 * @param args The number of quests per pass, 10000 by default, and their max depth, 6 by default.
+	 */
+	public static void main(String[] args)
+	{
+		int quests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		GeneratorContext context = new GeneratorContext().withMaxDepth(args.length > 1 ? Integer.parseInt(args[1]) : 6);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		for(int pass = 0; pass < 2; pass++)
+		{
+			long start = threads.getThreadAllocatedBytes(thread);
+			for(int i = 0; i < quests; i++)
+				QuestGenerator.createNewRandomQuest(context, i);
+			long allocated = threads.getThreadAllocatedBytes(thread) - start;
+			System.out.printf("%s pass: %d bytes/quest%n", pass == 0 ? "Cold" : "Warm", allocated / quests);
+		}
+	}
+}
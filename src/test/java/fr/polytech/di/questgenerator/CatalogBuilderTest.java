@@ -0,0 +1,152 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.ObjectiveIdSet;
+import fr.polytech.di.questgenerator.objects.xml.CatalogBuilder;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a builder compiles its categories in preorder with contiguous ranges, merges the duplicates, drops what has been removed, and that a draw falls back to counting the candidates when too many are excluded.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogBuilderTest
+{
+	private static final String[] PATHS = {"a", "a/*", "a/b", "a/b/*", "a/b/c", "a/b/c/*", "d", "d/*"};
+
+	/**
+	 * Used to get a builder with categories and values added out of order.
+	 *
+	 * @return The builder.
+	 */
+	private static CatalogBuilder newBuilder()
+	{
+		CatalogBuilder builder = new CatalogBuilder();
+		int a = builder.addCategory(-1, "a");
+		builder.addValue(a, "a1");
+		int d = builder.addCategory(-1, "d");
+		builder.addValue(d, "d1");
+		int b = builder.addCategory(a, "b");
+		builder.addValue(b, "b1");
+		builder.addValue(a, "a2");
+		int c = builder.addCategory(b, "c");
+		builder.addValue(c, "c1");
+		builder.addValue(b, "b2");
+		return builder;
+	}
+
+	/**
+	 * Used to get the paths and values of the elements of a catalog, by id.
+	 *
+	 * @param catalog The catalog.
+	 * @return The elements, as path/value.
+	 */
+	private static List<String> getElements(XMLStringObjectiveCatalog catalog)
+	{
+		List<String> elements = new ArrayList<>();
+		for(int id = 0; id < catalog.size(); id++)
+			elements.add(catalog.getElement(id).getPath() + "/" + catalog.getElement(id).getValue());
+		return elements;
+	}
+
+	/**
+	 * The elements must be numbered in preorder, the values of a category before its subcategories, and each path must be the range of its elements.
+	 */
+	@Test
+	public void categoriesAreContiguousRangesInPreorder()
+	{
+		XMLStringObjectiveCatalog catalog = newBuilder().build();
+		assertEquals(Arrays.asList("a/a1", "a/a2", "a/b/b1", "a/b/b2", "a/b/c/c1", "d/d1"), getElements(catalog));
+		for(int id = 0; id < catalog.size(); id++)
+		{
+			XMLStringObjectiveElement element = catalog.getElement(id);
+			assertEquals(id, element.getId());
+			for(String path : PATHS)
+			{
+				String category = path.endsWith("/*") ? path.substring(0, path.length() - 2) : path;
+				boolean expected = path.endsWith("/*") ? (element.getPath() + "/").startsWith(category + "/") : element.getPath().equals(category);
+				assertEquals(element.getPath() + "/" + element.getValue() + " in " + path, expected, element.isInPath(path));
+			}
+		}
+	}
+
+	/**
+	 * A category added again must be merged with the first one, and a value added again to a category must only replace the weight of the first one.
+	 */
+	@Test
+	public void duplicatesAreMerged()
+	{
+		CatalogBuilder builder = newBuilder();
+		int a = builder.addCategory(-1, "a");
+		builder.addValue(a, "a3");
+		builder.addValue(a, "a1", 3);
+		builder.addValue(builder.addCategory(a, "b"), "b1", 2);
+		XMLStringObjectiveCatalog catalog = builder.build();
+		assertEquals(Arrays.asList("a/a1", "a/a2", "a/a3", "a/b/b1", "a/b/b2", "a/b/c/c1", "d/d1"), getElements(catalog));
+		assertEquals(3, catalog.getElement("a", "a1").getWeight(), 0);
+		assertEquals(2, catalog.getElement("a/b", "b1").getWeight(), 0);
+		assertEquals(XMLStringObjectiveElement.DEFAULT_WEIGHT, catalog.getElement("a", "a2").getWeight(), 0);
+		assertEquals(2, catalog.getCategories().size());
+	}
+
+	/**
+	 * A removed category must be dropped with its subcategories, and a removed value must be dropped unless it has been added again afterwards.
+	 */
+	@Test
+	public void removedContentIsDropped()
+	{
+		CatalogBuilder builder = newBuilder();
+		int a = builder.addCategory(-1, "a");
+		builder.removeCategory(a, "b");
+		builder.removeValue(a, "a1");
+		builder.removeValue(a, "a2");
+		builder.addValue(a, "a2");
+		XMLStringObjectiveCatalog catalog = builder.build();
+		assertEquals(Arrays.asList("a/a2", "d/d1"), getElements(catalog));
+		assertFalse(catalog.getElement("a", "a2").isInPath("a/b/*"));
+	}
+
+	/**
+	 * A catalog rebuilt from the categories of another one must have the same elements with the same ids.
+	 */
+	@Test
+	public void categoriesRebuildTheSameCatalog()
+	{
+		XMLStringObjectiveCatalog catalog = newBuilder().build();
+		assertEquals(getElements(catalog), getElements(CatalogBuilder.of(catalog.getCategories()).build()));
+	}
+
+	/**
+	 * When all the elements but one are excluded, the draws are rejected and the remaining candidate must be found by counting, with or without weights. When all are excluded, the element returned mustn't be part of the catalog.
+	 */
+	@Test
+	public void excludedDrawsFallBackToCounting()
+	{
+		for(boolean weighted : new boolean[]{false, true})
+		{
+			CatalogBuilder builder = new CatalogBuilder();
+			int category = builder.addCategory(-1, "many");
+			for(int i = 0; i < 100; i++)
+				builder.addValue(category, "v" + i, weighted ? 1 + i : XMLStringObjectiveElement.DEFAULT_WEIGHT);
+			XMLStringObjectiveCatalog catalog = builder.build();
+			ObjectiveIdSet excluded = ObjectiveIdSet.EMPTY;
+			for(int id = 0; id < catalog.size(); id++)
+				if(id != 42)
+					excluded = excluded.with(id);
+			SplittableRandom random = new SplittableRandom(1);
+			for(int i = 0; i < 100; i++)
+				assertSame(catalog.getElement(42), catalog.getRandomFromCategories(random, excluded, "many", "missing"));
+			assertFalse(catalog.contains(catalog.getRandomFromCategories(random, excluded.with(42), "many")));
+			assertTrue(catalog.contains(catalog.getRandomFromCategories(random, ObjectiveIdSet.EMPTY, "many/*")));
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.xml.CatalogBuilder;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveLoader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the elements of a catalog are interned with stable ids, compare by path and value with the elements outside of it, match their paths on path boundaries and are found by prefix.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogElementTest
+{
+	/**
+	 * Used to load the catalog of the resources.
+	 *
+	 * @return The catalog.
+	 * @throws Exception If the file couldn't be read.
+	 */
+	private static XMLStringObjectiveCatalog loadCatalog() throws Exception
+	{
+		try(InputStream in = CatalogElementTest.class.getResourceAsStream("/xmls/strings.xml"))
+		{
+			return new XMLStringObjectiveLoader().load(in);
+		}
+	}
+
+	/**
+	 * Each element must be the only instance of its path and value in its catalog, with its index as id.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void elementsAreInterned() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = loadCatalog();
+		assertTrue(catalog.size() > 0);
+		for(int id = 0; id < catalog.size(); id++)
+		{
+			XMLStringObjectiveElement element = catalog.getElement(id);
+			assertEquals(id, element.getId());
+			assertSame(catalog, element.getCatalog());
+			assertSame(element, catalog.getElement(element.getPath(), element.getValue()));
+			assertSame(element, catalog.getElement(new String(element.getPath()), new String(element.getValue())));
+			assertTrue(catalog.contains(element));
+		}
+		assertNull(catalog.getElement(-1));
+		assertNull(catalog.getElement(catalog.size()));
+		assertNull(catalog.getElement("area/wild", "Nowhere"));
+	}
+
+	/**
+	 * An element outside of the catalog must be equal to the element of the catalog with the same path and value, with the same hash code, but must never be part of the catalog.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void outsideElementsEqualCatalogElements() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = loadCatalog();
+		for(int id = 0; id < catalog.size(); id++)
+		{
+			XMLStringObjectiveElement element = catalog.getElement(id);
+			XMLStringObjectiveElement outside = new XMLStringObjectiveElement(new String(element.getPath()), new String(element.getValue()));
+			assertEquals(element, outside);
+			assertEquals(outside, element);
+			assertEquals(element.hashCode(), outside.hashCode());
+			assertTrue(element.is(outside));
+			assertTrue(outside.is(element));
+			assertEquals(-1, outside.getId());
+			assertFalse(catalog.contains(outside));
+			assertNotEquals(element, new XMLStringObjectiveElement(element.getPath() + "/x", element.getValue()));
+			if(id > 0)
+			{
+				assertNotEquals(element, catalog.getElement(id - 1));
+				assertFalse(element.is(catalog.getElement(id - 1)));
+			}
+		}
+	}
+
+	/**
+	 * Loading the same file twice, or building a catalog from the categories of another one, must give the same ids to the same elements, and the elements of both catalogs must be equal.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void idsAreStableAcrossLoads() throws Exception
+	{
+		XMLStringObjectiveCatalog first = loadCatalog();
+		XMLStringObjectiveCatalog second = loadCatalog();
+		XMLStringObjectiveCatalog rebuilt = CatalogBuilder.of(first.getCategories()).build();
+		assertNotEquals(first.getVersion(), second.getVersion());
+		assertEquals(first.size(), second.size());
+		assertEquals(first.size(), rebuilt.size());
+		for(int id = 0; id < first.size(); id++)
+		{
+			XMLStringObjectiveElement element = first.getElement(id);
+			for(XMLStringObjectiveCatalog other : new XMLStringObjectiveCatalog[]{second, rebuilt})
+			{
+				XMLStringObjectiveElement same = other.getElement(id);
+				assertEquals(element.getPath(), same.getPath());
+				assertEquals(element.getValue(), same.getValue());
+				assertEquals(element, same);
+				assertTrue(element.is(same));
+				assertSame(same, other.getElement(element.getPath(), element.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * A path ending with /* must match its category and subcategories only, on path boundaries: a/b/* matches a/b and a/b/c but not a/bc. The elements of a catalog, checked against its ranges, and the elements outside of it, checked against their path, must agree.
+	 */
+	@Test
+	public void pathsMatchOnBoundaries()
+	{
+		CatalogBuilder builder = new CatalogBuilder();
+		int a = builder.addCategory(-1, "a");
+		int b = builder.addCategory(a, "b");
+		builder.addValue(b, "in b");
+		builder.addValue(builder.addCategory(b, "c"), "in c");
+		builder.addValue(builder.addCategory(a, "bc"), "in bc");
+		builder.addValue(builder.addCategory(-1, "ab"), "in ab");
+		XMLStringObjectiveCatalog catalog = builder.build();
+		String[][] expected = {
+				{"a/b", "in b", "a/*", "a/b", "a/b/*"},
+				{"a/b/c", "in c", "a/*", "a/b/*", "a/b/c", "a/b/c/*"},
+				{"a/bc", "in bc", "a/*", "a/bc", "a/bc/*"},
+				{"ab", "in ab", "ab", "ab/*"}};
+		String[] paths = {"a", "a/*", "a/b", "a/b/*", "a/b/c", "a/b/c/*", "a/bc", "a/bc/*", "ab", "ab/*", "a/b/", "a/b/c/d/*", "x/*"};
+		for(String[] element : expected)
+		{
+			XMLStringObjectiveElement inCatalog = catalog.getElement(element[0], element[1]);
+			XMLStringObjectiveElement outside = new XMLStringObjectiveElement(element[0], element[1]);
+			for(String path : paths)
+			{
+				boolean in = false;
+				for(int i = 2; i < element.length; i++)
+					in |= element[i].equals(path);
+				assertEquals(element[0] + " in " + path, in, inCatalog.isInPath(path));
+				assertEquals(element[0] + " in " + path + " outside the catalog", in, outside.isInPath(path));
+			}
+			assertTrue(inCatalog.isInPath("x/*", element[2]));
+			assertFalse(inCatalog.isInPath("x/*", "a/b/c/d/*"));
+		}
+	}
+
+	/**
+	 * The elements found by prefix must be the elements whose value starts with it, in the order of the sorted elements, including for an empty prefix, a whole value, a prefix matching nothing and prefixes sorted before or after every value.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void prefixesFindTheirElements() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = loadCatalog();
+		List<XMLStringObjectiveElement> sorted = catalog.getAllSorted();
+		assertEquals(catalog.size(), sorted.size());
+		for(int i = 1; i < sorted.size(); i++)
+			assertTrue(sorted.get(i - 1).getValue().compareTo(sorted.get(i).getValue()) <= 0);
+		List<String> prefixes = new ArrayList<>(Arrays.asList("", "\u0000", " ", "Zzzz", "zzzz", "\uffff", "\uffff\uffff", "No value starts like this"));
+		for(XMLStringObjectiveElement element : sorted)
+			for(int length = 1; length <= element.getValue().length(); length++)
+				prefixes.add(element.getValue().substring(0, length));
+		for(String prefix : prefixes)
+		{
+			List<XMLStringObjectiveElement> expected = new ArrayList<>();
+			for(XMLStringObjectiveElement element : sorted)
+				if(element.getValue().startsWith(prefix))
+					expected.add(element);
+			assertEquals("Prefix " + prefix, expected, catalog.getByPrefix(prefix));
+		}
+		assertEquals(sorted, catalog.getByPrefix(""));
+		assertTrue(catalog.getByPrefix("\uffff").isEmpty());
+		assertTrue(new XMLStringObjectiveCatalog(new ArrayList<>()).getByPrefix("").isEmpty());
+	}
+
+	/**
+	 * The weight of an element must be positive and finite.
+	 */
+	@Test
+	public void invalidWeightsAreRejected()
+	{
+		for(double weight : new double[]{0, -1, Double.NaN, Double.POSITIVE_INFINITY})
+			try
+			{
+				new XMLStringObjectiveElement("area", "Forest", weight);
+				throw new AssertionError("Weight " + weight + " accepted");
+			}
+			catch(IllegalArgumentException ignored)
+			{
+			}
+	}
+}
@@ -0,0 +1,169 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveLoader;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the overlays of a catalog are applied in order on the base file, whatever the order they have been read in, with their add, override and remove modes.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogOverlayTest
+{
+	private static final String BASE = "<strings>"
+			+ "<category value=\"a\"><element value=\"a1\"/><element value=\"a2\" weight=\"2\"/>"
+			+ "<category value=\"b\"><element value=\"b1\"/></category></category>"
+			+ "<category value=\"d\"><element value=\"d1\"/></category>"
+			+ "</strings>";
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Used to write the files of a catalog and load them.
+	 *
+	 * @param files The content of the base file followed by the ones of the overlays.
+	 * @return The catalog.
+	 * @throws IOException If a file couldn't be written or read.
+	 * @throws XMLStreamException If a file couldn't be parsed.
+	 */
+	private XMLStringObjectiveCatalog load(String... files) throws IOException, XMLStreamException
+	{
+		List<URL> sources = new ArrayList<>();
+		for(String content : files)
+		{
+			File file = this.folder.newFile();
+			Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+			sources.add(file.toURI().toURL());
+		}
+		return new XMLStringObjectiveLoader().load(sources);
+	}
+
+	/**
+	 * Used to get the paths and values of the elements of a catalog, by id.
+	 *
+	 * @param catalog The catalog.
+	 * @return The elements, as path/value.
+	 */
+	private static List<String> getElements(XMLStringObjectiveCatalog catalog)
+	{
+		List<String> elements = new ArrayList<>();
+		for(int id = 0; id < catalog.size(); id++)
+			elements.add(catalog.getElement(id).getPath() + "/" + catalog.getElement(id).getValue());
+		return elements;
+	}
+
+	/**
+	 * An overlay in add mode must merge its categories with the existing ones, add its new values and replace the weight of the existing ones.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void addMergesCategories() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = load(BASE, "<strings>"
+				+ "<category value=\"a\"><element value=\"a3\"/><element value=\"a1\" weight=\"5\"/>"
+				+ "<category value=\"b\" mode=\"add\"><element value=\"b2\"/></category></category>"
+				+ "<category value=\"e\"><element value=\"e1\"/></category>"
+				+ "</strings>");
+		assertEquals(Arrays.asList("a/a1", "a/a2", "a/a3", "a/b/b1", "a/b/b2", "d/d1", "e/e1"), getElements(catalog));
+		assertEquals(5, catalog.getElement("a", "a1").getWeight(), 0);
+		assertEquals(2, catalog.getElement("a", "a2").getWeight(), 0);
+	}
+
+	/**
+	 * An overlay in override mode must replace the category with its own values and subcategories, leaving the other categories untouched. The new category comes after the ones of its parent.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void overrideReplacesTheCategory() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = load(BASE, "<strings><category value=\"a\" mode=\"override\"><element value=\"a9\"/></category></strings>");
+		assertEquals(Arrays.asList("d/d1", "a/a9"), getElements(catalog));
+		assertTrue(catalog.getElement("a", "a9").isInPath("a/*"));
+	}
+
+	/**
+	 * An overlay in remove mode must drop the category or the element, the content of a removed category being ignored.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void removeDropsTheContent() throws Exception
+	{
+		XMLStringObjectiveCatalog catalog = load(BASE, "<strings>"
+				+ "<category value=\"a\"><element value=\"a2\" mode=\"remove\"/>"
+				+ "<category value=\"b\" mode=\"remove\"><element value=\"b9\"/></category></category>"
+				+ "<category value=\"d\" mode=\"remove\"/>"
+				+ "</strings>");
+		assertEquals(Arrays.asList("a/a1"), getElements(catalog));
+	}
+
+	/**
+	 * The overlays must be applied in the order they are given: an element removed then added again is kept, while an element added then removed is dropped.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void overlaysAreAppliedInOrder() throws Exception
+	{
+		String remove = "<strings><category value=\"d\"><element value=\"d1\" mode=\"remove\"/></category></strings>";
+		String add = "<strings><category value=\"d\"><element value=\"d1\" weight=\"3\"/></category></strings>";
+		XMLStringObjectiveCatalog removedThenAdded = load(BASE, remove, add);
+		assertEquals(Arrays.asList("a/a1", "a/a2", "a/b/b1", "d/d1"), getElements(removedThenAdded));
+		assertEquals(3, removedThenAdded.getElement("d", "d1").getWeight(), 0);
+		assertEquals(Arrays.asList("a/a1", "a/a2", "a/b/b1"), getElements(load(BASE, add, remove)));
+	}
+
+	/**
+	 * Many overlays, read in parallel, must still be applied in their order, the last override winning.
+	 *
+	 * @throws Exception If the catalog couldn't be loaded.
+	 */
+	@Test
+	public void lastOverrideWins() throws Exception
+	{
+		String[] files = new String[33];
+		files[0] = BASE;
+		for(int i = 1; i < files.length; i++)
+			files[i] = "<strings><category value=\"d\" mode=\"override\"><element value=\"v" + i + "\"/></category></strings>";
+		for(int run = 0; run < 5; run++)
+			assertEquals(Arrays.asList("a/a1", "a/a2", "a/b/b1", "d/v32"), getElements(load(files)));
+	}
+
+	/**
+	 * An unknown mode or an invalid weight in an overlay must fail the load.
+	 *
+	 * @throws Exception If the files couldn't be written.
+	 */
+	@Test
+	public void invalidOverlaysAreRejected() throws Exception
+	{
+		for(String overlay : new String[]{
+				"<strings><category value=\"a\" mode=\"replace\"/></strings>",
+				"<strings><category value=\"a\"><element value=\"a1\" weight=\"-1\"/></category></strings>",
+				"<strings><category value=\"a\">"})
+			try
+			{
+				load(BASE, overlay);
+				throw new AssertionError("Overlay accepted: " + overlay);
+			}
+			catch(XMLStreamException ignored)
+			{
+			}
+	}
+}
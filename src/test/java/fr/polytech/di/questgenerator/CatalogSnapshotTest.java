@@ -0,0 +1,90 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.CatalogSnapshot;
+import fr.polytech.di.questgenerator.objects.DataHandler;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Properties;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a snapshot gives back the catalog and properties it has been written with, and is only read with the stamp of the files it has been compiled from.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogSnapshotTest
+{
+	/**
+	 * Used to write a snapshot of a catalog.
+	 *
+	 * @param catalog The catalog.
+	 * @param properties The properties by file name.
+	 * @param stamp The stamp of the source files.
+	 * @return The snapshot.
+	 * @throws IOException If the snapshot couldn't be written.
+	 */
+	private static ByteBuffer write(XMLStringObjectiveCatalog catalog, HashMap<String, Properties> properties, long stamp) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CatalogSnapshot.write(out, catalog.getCategories(), properties, stamp);
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	/**
+	 * A snapshot read with its stamp must give back the same elements, weights and properties.
+	 *
+	 * @throws IOException If the snapshot couldn't be written.
+	 */
+	@Test
+	public void snapshotsGiveBackTheirContent() throws IOException
+	{
+		XMLStringObjectiveCatalog catalog = DataHandler.loadXML();
+		HashMap<String, Properties> properties = new HashMap<>();
+		Properties sentences = new Properties();
+		sentences.setProperty("greeting", "Hello");
+		properties.put("QuestSentences", sentences);
+		CatalogSnapshot snapshot = CatalogSnapshot.read(write(catalog, properties, 42), 42).orElseThrow(AssertionError::new);
+		XMLStringObjectiveCatalog read = snapshot.getCatalog();
+		assertEquals(catalog.size(), read.size());
+		for(int id = 0; id < catalog.size(); id++)
+		{
+			assertEquals(catalog.getElement(id), read.getElement(id));
+			assertEquals(catalog.getElement(id).getWeight(), read.getElement(id).getWeight(), 0);
+		}
+		assertEquals(sentences, snapshot.getProperties("QuestSentences"));
+	}
+
+	/**
+	 * A snapshot read with another stamp, or something that isn't a snapshot, must be ignored.
+	 *
+	 * @throws IOException If the snapshot couldn't be written.
+	 */
+	@Test
+	public void staleSnapshotsAreIgnored() throws IOException
+	{
+		ByteBuffer snapshot = write(DataHandler.loadXML(), new HashMap<>(), 42);
+		assertFalse(CatalogSnapshot.read(snapshot, 43).isPresent());
+		assertFalse(CatalogSnapshot.read(ByteBuffer.allocate(8), 42).isPresent());
+		assertFalse(CatalogSnapshot.read(ByteBuffer.allocate(64), 0).isPresent());
+	}
+
+	/**
+	 * The stamp of the source files must only change when they change.
+	 *
+	 * @throws IOException If a source file couldn't be found.
+	 */
+	@Test
+	public void stampIsStable() throws IOException
+	{
+		long stamp = CatalogSnapshot.getSourceStamp();
+		for(int i = 0; i < 10; i++)
+			assertEquals(stamp, CatalogSnapshot.getSourceStamp());
+		assertTrue(DataHandler.getSources().size() > 0);
+	}
+}
@@ -0,0 +1,132 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.Resources;
+import fr.polytech.di.questgenerator.objects.CatalogWatcher;
+import fr.polytech.di.questgenerator.objects.DataHandler;
+import fr.polytech.di.questgenerator.objects.Quest;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a change of the watched files publishes a new catalog while the quests already generated keep theirs, and that a malformed file is counted as a failure and keeps the current catalog.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class CatalogWatcherTest
+{
+	private static final GeneratorContext CONTEXT = new GeneratorContext().withMaxDepth(3);
+	private static final String OVERLAY = "<strings><category value=\"area\"><category value=\"wild\"><element value=\"Marsh\"/></category></category></strings>";
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Wait for a condition to be true.
+	 *
+	 * @param message The message of the failure if the condition is still false after 30 seconds.
+	 * @param condition The condition.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	private static void waitFor(String message, BooleanSupplier condition) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while(!condition.getAsBoolean())
+		{
+			assertTrue(message, System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Used to copy the strings file of the resources to the temporary folder.
+	 *
+	 * @return The copy.
+	 * @throws IOException If the file couldn't be copied.
+	 */
+	private File copyStrings() throws IOException
+	{
+		File file = new File(this.folder.getRoot(), "strings.xml");
+		try(InputStream in = Resources.XMLS.getResource("strings.xml").openStream())
+		{
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+
+	/**
+	 * Give back the catalog of the resources to the other tests.
+	 */
+	@After
+	public void restoreCatalog()
+	{
+		assertTrue(DataHandler.reload());
+	}
+
+	/**
+	 * An overlay added to the watched directory must publish a new catalog version with its elements, the quests generated before keeping their catalog and its version.
+	 *
+	 * @throws Exception If the files couldn't be written or watched.
+	 */
+	@Test
+	public void reloadPublishesANewCatalog() throws Exception
+	{
+		File strings = copyStrings();
+		File overlays = this.folder.newFolder("overlays");
+		assertTrue(DataHandler.reload(strings, overlays));
+		XMLStringObjectiveCatalog before = DataHandler.getCatalog();
+		Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, 1);
+		assertEquals(before.getVersion(), quest.getCatalogVersion());
+		try(CatalogWatcher watcher = new CatalogWatcher(strings.toPath(), overlays.toPath()))
+		{
+			Files.write(new File(overlays, "marsh.xml").toPath(), OVERLAY.getBytes(StandardCharsets.UTF_8));
+			waitFor("No reload", () -> watcher.getReloads() > 0);
+			XMLStringObjectiveCatalog after = DataHandler.getCatalog();
+			assertTrue(after.getVersion() > before.getVersion());
+			assertNotNull(after.getElement("area/wild", "Marsh"));
+			assertNull(before.getElement("area/wild", "Marsh"));
+			assertEquals(before.size() + 1, after.size());
+			assertEquals(before.getVersion(), quest.getCatalogVersion());
+			assertSame(before, quest.getContext().getCatalog());
+			assertEquals(after.getVersion(), QuestGenerator.createNewRandomQuest(CONTEXT, 1).getCatalogVersion());
+			assertEquals(0, watcher.getFailures());
+		}
+	}
+
+	/**
+	 * A malformed strings file must be counted as a failure, the current catalog being kept.
+	 *
+	 * @throws Exception If the files couldn't be written or watched.
+	 */
+	@Test
+	public void malformedFileKeepsTheCatalog() throws Exception
+	{
+		File strings = copyStrings();
+		File overlays = this.folder.newFolder("overlays");
+		assertTrue(DataHandler.reload(strings, overlays));
+		XMLStringObjectiveCatalog before = DataHandler.getCatalog();
+		try(CatalogWatcher watcher = new CatalogWatcher(strings.toPath(), overlays.toPath()))
+		{
+			Files.write(strings.toPath(), "<strings><category value=\"area\">".getBytes(StandardCharsets.UTF_8));
+			waitFor("No failure", () -> watcher.getFailures() > 0);
+			assertSame(before, DataHandler.getCatalog());
+			assertEquals(0, watcher.getReloads());
+			assertNotEquals(0, QuestGenerator.createNewRandomQuest(CONTEXT, 1).getActions().size());
+		}
+	}
+}
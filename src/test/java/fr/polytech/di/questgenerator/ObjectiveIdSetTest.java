@@ -0,0 +1,172 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.ObjectiveIdSet;
+import fr.polytech.di.questgenerator.objects.Quest;
+import fr.polytech.di.questgenerator.objects.xml.CatalogBuilder;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the elements excluded by their ids are never drawn, that a set contains the ids added to it across the levels of its trie, and that the used objectives are propagated down a quest.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class ObjectiveIdSetTest
+{
+	/**
+	 * Used to get a catalog with a category of 200 values and a subcategory of 100.
+	 *
+	 * @return The catalog.
+	 */
+	private static XMLStringObjectiveCatalog newCatalog()
+	{
+		CatalogBuilder builder = new CatalogBuilder();
+		int category = builder.addCategory(-1, "pnj");
+		for(int i = 0; i < 200; i++)
+			builder.addValue(category, "p" + i);
+		int subcategory = builder.addCategory(category, "angel");
+		for(int i = 0; i < 100; i++)
+			builder.addValue(subcategory, "a" + i);
+		return builder.build();
+	}
+
+	/**
+	 * The elements of a black list must never be drawn, whether they are the elements of the catalog or equal ones.
+	 */
+	@Test
+	public void blackListedElementsAreNeverDrawn()
+	{
+		XMLStringObjectiveCatalog catalog = newCatalog();
+		List<XMLStringObjectiveElement> blackList = new ArrayList<>();
+		for(int id = 0; id < catalog.size(); id += 3)
+			blackList.add(catalog.getElement(id));
+		for(int id = 1; id < catalog.size(); id += 7)
+			blackList.add(new XMLStringObjectiveElement(catalog.getElement(id).getPath(), catalog.getElement(id).getValue()));
+		ObjectiveIdSet excluded = catalog.getIds(blackList);
+		SplittableRandom random = new SplittableRandom(5);
+		for(int i = 0; i < 10000; i++)
+		{
+			XMLStringObjectiveElement element = catalog.getRandomFromCategories(random, blackList, "pnj/*");
+			assertTrue(catalog.contains(element));
+			assertFalse(element.toString(), blackList.contains(element));
+			assertFalse(element.toString(), excluded.contains(element.getId()));
+		}
+	}
+
+	/**
+	 * The ids of elements must be the ids of the elements of the catalog equal to them, the elements not in the catalog being ignored.
+	 */
+	@Test
+	public void idsOfEqualElementsAreTheCatalogIds()
+	{
+		XMLStringObjectiveCatalog catalog = newCatalog();
+		List<XMLStringObjectiveElement> elements = new ArrayList<>();
+		elements.add(new XMLStringObjectiveElement("pnj", "p12"));
+		elements.add(new XMLStringObjectiveElement("pnj/angel", "a3"));
+		elements.add(new XMLStringObjectiveElement("pnj", "a3"));
+		elements.add(new XMLStringObjectiveElement("class", "ActionQuestActionExecutor"));
+		ObjectiveIdSet ids = catalog.getIds(elements);
+		assertEquals(2, ids.size());
+		assertTrue(ids.contains(catalog.getElement("pnj", "p12").getId()));
+		assertTrue(ids.contains(catalog.getElement("pnj/angel", "a3").getId()));
+	}
+
+	/**
+	 * A set must contain exactly the ids added to it, on one level and across the levels of the trie, and adding an id mustn't change the sets it has been added to.
+	 */
+	@Test
+	public void setsContainTheirIdsAcrossLevels()
+	{
+		int[] ids = {0, 1, 63, 64, 65, 2047, 2048, 2049, 65535, 65536, 1 << 21, (1 << 26) + 5, Integer.MAX_VALUE};
+		List<ObjectiveIdSet> sets = new ArrayList<>();
+		ObjectiveIdSet set = ObjectiveIdSet.EMPTY;
+		sets.add(set);
+		for(int i = ids.length - 1; i >= 0; i--)
+		{
+			set = set.with(ids[i]);
+			sets.add(set);
+		}
+		for(int added = 0; added < sets.size(); added++)
+		{
+			ObjectiveIdSet checked = sets.get(added);
+			assertEquals(added, checked.size());
+			for(int i = 0; i < ids.length; i++)
+				assertEquals("Id " + ids[i] + " after " + added + " ids", i >= ids.length - added, checked.contains(ids[i]));
+			for(int id : new int[]{2, 62, 66, 2046, 2050, 65534, 65537, (1 << 21) + 1, 1 << 26, Integer.MAX_VALUE - 1})
+				assertFalse("Id " + id, checked.contains(id));
+		}
+		assertFalse(set.contains(-1));
+		assertEquals(set, set.with(64));
+		assertEquals(set, set.with(-1));
+	}
+
+	/**
+	 * A set built with random ids must contain the same ids as a HashSet built with them, and nextAbsent must skip the ids present.
+	 */
+	@Test
+	public void randomSetsMatchAHashSet()
+	{
+		SplittableRandom random = new SplittableRandom(6);
+		for(int bound : new int[]{64, 2048, 1 << 16, 1 << 22})
+		{
+			ObjectiveIdSet set = ObjectiveIdSet.EMPTY;
+			Set<Integer> expected = new HashSet<>();
+			for(int i = 0; i < 2000; i++)
+			{
+				int id = random.nextInt(bound);
+				set = set.with(id);
+				expected.add(id);
+			}
+			assertEquals(expected.size(), set.size());
+			for(int i = 0; i < 5000; i++)
+			{
+				int id = random.nextInt(bound);
+				assertEquals("Id " + id, expected.contains(id), set.contains(id));
+				int absent = set.nextAbsent(id);
+				assertFalse(expected.contains(absent));
+				for(int skipped = id; skipped < absent; skipped++)
+					assertTrue(expected.contains(skipped));
+			}
+		}
+	}
+
+	/**
+	 * The used objectives of each action of a quest must be the ones of its parents plus its own ones, the ones outside the catalog being ignored.
+	 */
+	@Test
+	public void usedObjectivesPropagateDownTheTree()
+	{
+		GeneratorContext context = new GeneratorContext().withMaxDepth(6);
+		for(long seed = 0; seed < 50; seed++)
+			checkUsedObjectives(QuestGenerator.createNewRandomQuest(context, seed));
+	}
+
+	/**
+	 * Check the used objectives of the actions of a quest and its subquests.
+	 *
+	 * @param quest The quest.
+	 */
+	private static void checkUsedObjectives(Quest quest)
+	{
+		XMLStringObjectiveCatalog catalog = quest.getContext().getCatalog();
+		for(Action action : quest.getActions())
+		{
+			ObjectiveIdSet ids = action.getUsedObjectiveIds();
+			ObjectiveIdSet expected = catalog.getIds(action.getUsedObjectives());
+			assertEquals(action.toString(), expected.size(), ids.size());
+			for(XMLStringObjectiveElement objective : action.getUsedObjectives())
+				assertEquals(action + " " + objective.getDebugValue(), catalog.contains(objective), ids.contains(objective.getId()));
+			action.getSubquest().ifPresent(ObjectiveIdSetTest::checkUsedObjectives);
+		}
+	}
+}
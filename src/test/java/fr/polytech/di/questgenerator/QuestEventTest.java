@@ -0,0 +1,493 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.ActionType;
+import fr.polytech.di.questgenerator.enums.ExpansionMode;
+import fr.polytech.di.questgenerator.enums.ObjectiveType;
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.EventIndex;
+import fr.polytech.di.questgenerator.objects.GameEvent;
+import fr.polytech.di.questgenerator.objects.Quest;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveCatalog;
+import fr.polytech.di.questgenerator.objects.xml.XMLStringObjectiveElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that game events complete the actions to do of the quests, compared to the state of the quests computed again from the leaves done, and that invalid events are rejected.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestEventTest
+{
+	private static final GeneratorContext CONTEXT = new GeneratorContext().withMaxDepth(4);
+	private static final int QUESTS = 20;
+
+	/**
+	 * Used to get the event completing an action.
+	 *
+	 * @param action The action.
+	 * @return The event, null if the type of the action has no event.
+	 */
+	private static GameEvent getEvent(Action action)
+	{
+		List<ObjectiveType> objectives = action.getActionType().getEventObjectives();
+		if(objectives.isEmpty())
+			return null;
+		XMLStringObjectiveElement[] values = new XMLStringObjectiveElement[objectives.size()];
+		for(int i = 0; i < values.length; i++)
+			values[i] = action.getObjective(objectives.get(i));
+		return new GameEvent(action.getActionType(), values);
+	}
+
+	/**
+	 * Used to know if an event completes an action.
+	 *
+	 * @param action The action.
+	 * @param event The event.
+	 * @return True if the event has the type and the objectives of the action, false if not.
+	 */
+	private static boolean matches(Action action, GameEvent event)
+	{
+		if(action.getActionType() != event.getType())
+			return false;
+		List<ObjectiveType> objectives = event.getType().getEventObjectives();
+		for(int i = 0; i < objectives.size(); i++)
+			if(!action.getObjective(objectives.get(i)).equals(event.getObjectives().get(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Used to know if an action is done, computed again from the leaves marked as done.
+	 *
+	 * @param action The action.
+	 * @param marked The leaves marked as done.
+	 * @return True if done, false if not.
+	 */
+	private static boolean isDone(Action action, Set<Action> marked)
+	{
+		Optional<Quest> subquest = action.getSubquest();
+		return subquest.isPresent() ? isDone(subquest.get(), marked) : marked.contains(action);
+	}
+
+	/**
+	 * Used to know if a quest is done, computed again from the leaves marked as done.
+	 *
+	 * @param quest The quest.
+	 * @param marked The leaves marked as done.
+	 * @return True if done, false if not.
+	 */
+	private static boolean isDone(Quest quest, Set<Action> marked)
+	{
+		for(Action action : quest.getActions())
+			if(!isDone(action, marked))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Used to find the action to do of a quest, computed again from the leaves marked as done.
+	 *
+	 * @param quest The quest.
+	 * @param marked The leaves marked as done.
+	 * @return The action to do, null if the quest is done.
+	 */
+	private static Action findActionToDo(Quest quest, Set<Action> marked)
+	{
+		for(Action action : quest.getActions())
+			if(!isDone(action, marked))
+				return action.getSubquest().isPresent() ? findActionToDo(action.getSubquest().get(), marked) : action;
+		return null;
+	}
+
+	/**
+	 * Used to get the actions an event completes in a quest: the action to do if it matches, then the next one if it matches too, and so on.
+	 * The actions found are marked as done.
+	 *
+	 * @param quest The quest.
+	 * @param event The event.
+	 * @param marked The leaves marked as done.
+	 * @return The actions completed, in order.
+	 */
+	private static List<Action> complete(Quest quest, GameEvent event, Set<Action> marked)
+	{
+		List<Action> done = new ArrayList<>();
+		for(Action action = findActionToDo(quest, marked); action != null && matches(action, event); action = findActionToDo(quest, marked))
+		{
+			marked.add(action);
+			done.add(action);
+		}
+		return done;
+	}
+
+	/**
+	 * Add the leaves of a quest to a list.
+	 *
+	 * @param quest The quest.
+	 * @param leaves The leaves.
+	 */
+	private static void addLeaves(Quest quest, List<Action> leaves)
+	{
+		for(Action action : quest.getActions())
+			if(action.getSubquest().isPresent())
+				addLeaves(action.getSubquest().get(), leaves);
+			else
+				leaves.add(action);
+	}
+
+	/**
+	 * Check the state of the actions of a quest and its subquests against the state computed again from the leaves marked as done: an action is done when its leaves are, and doable when the actions before it in its quest are done.
+	 *
+	 * @param quest The quest.
+	 * @param marked The leaves marked as done.
+	 */
+	private static void checkState(Quest quest, Set<Action> marked)
+	{
+		boolean previousDone = true;
+		for(Action action : quest.getActions())
+		{
+			boolean done = isDone(action, marked);
+			assertEquals(action.toString(), done, action.isDone());
+			assertEquals(action.toString(), previousDone, action.isDoable());
+			assertEquals(action.toString(), previousDone, quest.isActionDoable(action));
+			action.getSubquest().ifPresent(subquest -> checkState(subquest, marked));
+			previousDone &= done;
+		}
+		assertEquals(previousDone, quest.isDone());
+	}
+
+	/**
+	 * Used to get the quests of the tests, the quests of some seeds being generated twice so that an event completes them together.
+	 *
+	 * @return The quests.
+	 */
+	private static List<Quest> newQuests()
+	{
+		List<Quest> quests = new ArrayList<>();
+		for(long seed = 0; seed < QUESTS; seed++)
+		{
+			quests.add(QuestGenerator.createNewRandomQuest(CONTEXT, seed));
+			if(seed % 4 == 0)
+				quests.add(QuestGenerator.createNewRandomQuest(CONTEXT, seed));
+		}
+		return quests;
+	}
+
+	/**
+	 * An event given to an index must complete exactly the actions to do matching it in all its quests, the index keeping the action to do of each quest as its doable leaf.
+	 * Some events are the ones of actions not doable yet, which must only complete the actions to do they happen to match.
+	 */
+	@Test
+	public void indexDispatchesToTheDoableLeaves()
+	{
+		List<Quest> quests = newQuests();
+		List<Action> leaves = new ArrayList<>();
+		EventIndex index = new EventIndex();
+		for(Quest quest : quests)
+		{
+			index.add(quest);
+			addLeaves(quest, leaves);
+		}
+		assertEquals(quests.size(), index.size());
+		Set<Action> marked = new HashSet<>();
+		SplittableRandom random = new SplittableRandom(7);
+		int shared = 0;
+		for(int step = 0; step < 100000; step++)
+		{
+			List<Action> doable = new ArrayList<>();
+			for(Quest quest : quests)
+			{
+				Action action = findActionToDo(quest, marked);
+				if(action != null)
+					doable.add(action);
+			}
+			assertEquals("Step " + step, doable, index.getDoableLeaves());
+			if(doable.isEmpty())
+				break;
+			Action target = random.nextInt(4) == 0 ? leaves.get(random.nextInt(leaves.size())) : doable.get(random.nextInt(doable.size()));
+			GameEvent event = getEvent(target);
+			if(event == null)
+			{
+				if(doable.contains(target))
+				{
+					target.setDone(true);
+					marked.add(target);
+				}
+				continue;
+			}
+			Set<Action> expected = new HashSet<>();
+			for(Quest quest : quests)
+				expected.addAll(complete(quest, event, marked));
+			List<Action> done = index.dispatch(event.getType(), event.getObjectives().toArray(new XMLStringObjectiveElement[0]));
+			assertEquals("Step " + step + " " + event, expected, new HashSet<>(done));
+			assertEquals(expected.size(), done.size());
+			if(done.size() > 1)
+				shared++;
+		}
+		for(Quest quest : quests)
+			assertTrue(quest.isDone());
+		assertTrue(index.getDoableLeaves().isEmpty());
+		assertTrue(shared > 0);
+	}
+
+	/**
+	 * After each leaf marked as done or not done anymore, in any order, the done and doable states of every action and quest and the doable leaves must be the ones computed again from the leaves, for eager and lazy quests.
+	 */
+	@Test
+	public void statesMatchAFullRecompute()
+	{
+		SplittableRandom random = new SplittableRandom(8);
+		for(GeneratorContext context : new GeneratorContext[]{CONTEXT, CONTEXT.withExpansionMode(ExpansionMode.LAZY)})
+			for(long seed = 0; seed < QUESTS; seed++)
+			{
+				Quest quest = QuestGenerator.createNewRandomQuest(context, seed);
+				Set<Action> marked = new HashSet<>();
+				List<Action> leaves = new ArrayList<>();
+				addLeaves(quest, leaves);
+				checkState(quest, marked);
+				for(int step = 0; step < 4 * leaves.size(); step++)
+				{
+					Action leaf = leaves.get(random.nextInt(leaves.size()));
+					boolean done = random.nextInt(4) != 0;
+					leaf.setDone(done);
+					if(done)
+						marked.add(leaf);
+					else
+						marked.remove(leaf);
+					checkState(quest, marked);
+					Action toDo = findActionToDo(quest, marked);
+					assertEquals("Seed " + seed + " step " + step, toDo == null ? Collections.emptyList() : Collections.singletonList(toDo), quest.getDoableLeaves());
+				}
+				for(Action leaf : leaves)
+					leaf.setDone(true);
+				assertTrue(quest.isDone());
+				assertTrue(quest.getDoableLeaves().isEmpty());
+			}
+	}
+
+	/**
+	 * The action to do of a quest must be kept while the quest doesn't change, and follow the changes of the deepest subquests, the action to do of each subquest and of its parent action being the one computed again from the leaves.
+	 */
+	@Test
+	public void frontierFollowsTheChanges()
+	{
+		SplittableRandom random = new SplittableRandom(9);
+		for(long seed = 0; seed < QUESTS; seed++)
+		{
+			Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+			Set<Action> marked = new HashSet<>();
+			List<Action> leaves = new ArrayList<>();
+			addLeaves(quest, leaves);
+			for(int step = 0; step < 4 * leaves.size(); step++)
+			{
+				Action toDo = quest.getActionToDo();
+				assertEquals("Seed " + seed + " step " + step, findActionToDo(quest, marked), toDo);
+				assertSame(toDo, quest.getActionToDo());
+				if(toDo != null)
+					for(Quest subquest = toDo.getParentQuest(); subquest != quest; subquest = subquest.getParent().getParentQuest())
+					{
+						assertSame(toDo, subquest.getActionToDo());
+						assertSame(toDo, subquest.getParent().getActionToDo());
+					}
+				Action leaf = random.nextInt(3) == 0 || toDo == null ? leaves.get(random.nextInt(leaves.size())) : toDo;
+				boolean done = random.nextInt(4) != 0;
+				leaf.setDone(done);
+				if(done)
+					marked.add(leaf);
+				else
+					marked.remove(leaf);
+			}
+		}
+	}
+
+	/**
+	 * Threads asking the action to do while the leaves of a quest are done in order must only see it move forward, and all see the quest done at the end.
+	 *
+	 * @throws InterruptedException If interrupted while waiting for the threads.
+	 */
+	@Test
+	public void frontierIsPublishedToOtherThreads() throws InterruptedException
+	{
+		for(long seed = 0; seed < QUESTS; seed++)
+		{
+			Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+			List<Action> leaves = new ArrayList<>();
+			addLeaves(quest, leaves);
+			AtomicBoolean writing = new AtomicBoolean(true);
+			AtomicInteger backwards = new AtomicInteger();
+			AtomicInteger unfinished = new AtomicInteger();
+			Thread[] readers = new Thread[3];
+			for(int i = 0; i < readers.length; i++)
+			{
+				readers[i] = new Thread(() -> {
+					int last = -1;
+					while(writing.get())
+					{
+						Action toDo = quest.getActionToDo();
+						int position = toDo == null ? leaves.size() : leaves.indexOf(toDo);
+						if(position < last)
+							backwards.incrementAndGet();
+						last = position;
+					}
+					if(quest.getActionToDo() != null)
+						unfinished.incrementAndGet();
+				});
+				readers[i].start();
+			}
+			for(Action leaf : leaves)
+				leaf.setDone(true);
+			writing.set(false);
+			for(Thread reader : readers)
+				reader.join();
+			assertEquals("Seed " + seed, 0, backwards.get());
+			assertEquals("Seed " + seed, 0, unfinished.get());
+		}
+	}
+
+	/**
+	 * A batch of events given to a quest, or to an index, must return exactly the actions the events complete one after the other, in the order they are completed.
+	 * The batches mix the events of the actions to do, of other actions and repeated events.
+	 */
+	@Test
+	public void applyReturnsTheCompletedActions()
+	{
+		SplittableRandom random = new SplittableRandom(10);
+		for(long seed = 0; seed < QUESTS; seed++)
+		{
+			Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+			Quest twin = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+			EventIndex index = new EventIndex();
+			index.add(twin);
+			Set<Action> marked = new HashSet<>();
+			Set<Action> twinMarked = new HashSet<>();
+			List<Action> leaves = new ArrayList<>();
+			addLeaves(quest, leaves);
+			assertTrue(quest.apply(Collections.emptyList()).isEmpty());
+			while(!quest.isDone())
+			{
+				Action toDo = quest.getActionToDo();
+				if(getEvent(toDo) == null)
+				{
+					toDo.setDone(true);
+					marked.add(toDo);
+					Action twinToDo = twin.getActionToDo();
+					twinToDo.setDone(true);
+					twinMarked.add(twinToDo);
+					continue;
+				}
+				List<GameEvent> events = new ArrayList<>();
+				for(int i = random.nextInt(5); i >= 0; i--)
+				{
+					int kind = random.nextInt(4);
+					GameEvent event = kind == 0 && !events.isEmpty() ? events.get(events.size() - 1) : getEvent(kind == 1 ? leaves.get(random.nextInt(leaves.size())) : toDo);
+					if(event != null)
+						events.add(event);
+				}
+				Set<Action> expected = new LinkedHashSet<>();
+				Set<Action> twinExpected = new LinkedHashSet<>();
+				for(GameEvent event : events)
+				{
+					expected.addAll(complete(quest, event, marked));
+					twinExpected.addAll(complete(twin, event, twinMarked));
+				}
+				assertEquals("Seed " + seed + " " + events, new ArrayList<>(expected), new ArrayList<>(quest.apply(events)));
+				assertEquals("Seed " + seed + " " + events, new ArrayList<>(twinExpected), new ArrayList<>(index.apply(events)));
+				assertEquals(expected.size(), twinExpected.size());
+			}
+			assertTrue(twin.isDone());
+			List<GameEvent> events = new ArrayList<>();
+			for(Action leaf : leaves)
+				if(getEvent(leaf) != null)
+					events.add(getEvent(leaf));
+			assertTrue(quest.apply(events).isEmpty());
+			assertTrue(index.apply(events).isEmpty());
+		}
+	}
+
+	/**
+	 * An event must have a type with an event and as many objectives as the type needs, all part of the catalog when given by ids, and must be equal to the events with the same type and objectives.
+	 */
+	@Test
+	public void eventsRejectBadArguments()
+	{
+		XMLStringObjectiveCatalog catalog = CONTEXT.getCatalog();
+		XMLStringObjectiveElement element = catalog.getElement(0);
+		Runnable[] invalid = {
+				() -> GameEvent.of(catalog, ActionType.NONE),
+				() -> GameEvent.of(catalog, ActionType.QUEST, 0),
+				() -> GameEvent.of(catalog, ActionType.KILL),
+				() -> GameEvent.of(catalog, ActionType.KILL, 0, 1),
+				() -> GameEvent.of(catalog, ActionType.EXCHANGE, 0, 1),
+				() -> GameEvent.of(catalog, ActionType.KILL, -1),
+				() -> GameEvent.of(catalog, ActionType.KILL, catalog.size()),
+				() -> new GameEvent(ActionType.KILL, (XMLStringObjectiveElement) null),
+				() -> new GameEvent(ActionType.GET, element, null)};
+		for(int i = 0; i < invalid.length; i++)
+			try
+			{
+				invalid[i].run();
+				throw new AssertionError("Event " + i + " accepted");
+			}
+			catch(IllegalArgumentException ignored)
+			{
+			}
+		XMLStringObjectiveElement[] objectives = {element, catalog.getElement(1), catalog.getElement(2)};
+		GameEvent event = new GameEvent(ActionType.EXCHANGE, objectives);
+		objectives[0] = catalog.getElement(3);
+		assertEquals(GameEvent.of(catalog, ActionType.EXCHANGE, 0, 1, 2), event);
+		assertEquals(GameEvent.of(catalog, ActionType.EXCHANGE, 0, 1, 2).hashCode(), event.hashCode());
+		assertArrayEquals(new int[]{0, 1, 2}, event.getIds());
+		assertEquals(new GameEvent(ActionType.KILL, new XMLStringObjectiveElement(element.getPath(), element.getValue())), GameEvent.of(catalog, ActionType.KILL, 0));
+		assertNotEquals(GameEvent.of(catalog, ActionType.KILL, 0), GameEvent.of(catalog, ActionType.CAPTURE, 0));
+		assertArrayEquals(new int[]{-1}, new GameEvent(ActionType.KILL, new XMLStringObjectiveElement("pnj", "Nobody")).getIds());
+		try
+		{
+			event.getObjectives().set(0, element);
+			throw new AssertionError("Objectives modified");
+		}
+		catch(UnsupportedOperationException ignored)
+		{
+		}
+	}
+
+	/**
+	 * A quest removed from an index mustn't be given the events of the index anymore.
+	 */
+	@Test
+	public void removedQuestsAreNotDispatched()
+	{
+		long seed = 0;
+		while(getEvent(QuestGenerator.createNewRandomQuest(CONTEXT, seed).getActionToDo()) == null)
+			seed++;
+		EventIndex index = new EventIndex();
+		Quest kept = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+		Quest removed = QuestGenerator.createNewRandomQuest(CONTEXT, seed);
+		index.add(kept);
+		index.add(removed);
+		index.add(kept);
+		assertEquals(2, index.size());
+		index.remove(removed);
+		assertEquals(Collections.singletonList(kept.getActionToDo()), index.getDoableLeaves());
+		Action leaf = kept.getActionToDo();
+		GameEvent event = getEvent(leaf);
+		assertEquals(Collections.singletonList(leaf), index.dispatch(event.getType(), event.getObjectives().toArray(new XMLStringObjectiveElement[0])).subList(0, 1));
+		assertTrue(leaf.isDone());
+		assertFalse(removed.getActionToDo().isDone());
+		assertTrue(index.dispatch(event.getType()).isEmpty());
+	}
+}
@@ -0,0 +1,210 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.ExpansionMode;
+import fr.polytech.di.questgenerator.enums.Motivations;
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.Quest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a seed always gives the same quest tree, whatever the way it is generated.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestGeneratorTest
+{
+	private static final int SEEDS = 100;
+	private static final GeneratorContext EAGER = new GeneratorContext().withMaxDepth(6);
+
+	/**
+	 * Two quests generated from the same seed must be the same.
+	 */
+	@Test
+	public void sameSeedGivesSameQuest()
+	{
+		for(long seed = 0; seed < SEEDS; seed++)
+			assertArrayEquals("Seed " + seed, QuestGenerator.createNewRandomQuest(EAGER, seed).getAsString(), QuestGenerator.createNewRandomQuest(EAGER, seed).getAsString());
+	}
+
+	/**
+	 * A lazy quest must become the eager quest of the same seed once all its subquests are generated.
+	 */
+	@Test
+	public void lazyQuestExpandsToEagerQuest()
+	{
+		GeneratorContext lazy = EAGER.withExpansionMode(ExpansionMode.LAZY);
+		for(long seed = 0; seed < SEEDS; seed++)
+		{
+			Quest quest = QuestGenerator.createNewRandomQuest(lazy, seed);
+			quest.getActionToDo();
+			assertArrayEquals("Seed " + seed, QuestGenerator.createNewRandomQuest(EAGER, seed).getAsString(), quest.getAsString());
+		}
+	}
+
+	/**
+	 * An iterative quest must be the eager quest of the same seed when its budget isn't reached.
+	 */
+	@Test
+	public void iterativeQuestEqualsEagerQuest()
+	{
+		GeneratorContext iterative = EAGER.withExpansionMode(ExpansionMode.ITERATIVE);
+		for(long seed = 0; seed < SEEDS; seed++)
+			assertArrayEquals("Seed " + seed, QuestGenerator.createNewRandomQuest(EAGER, seed).getAsString(), QuestGenerator.createNewRandomQuest(iterative, seed).getAsString());
+	}
+
+	/**
+	 * A quest generated by parallel tasks must be the eager quest of the same seed, whatever the parallel threshold.
+	 */
+	@Test
+	public void parallelQuestEqualsEagerQuest()
+	{
+		for(int threshold = 1; threshold <= EAGER.getMaxDepth(); threshold += 2)
+		{
+			GeneratorContext parallel = EAGER.withExpansionMode(ExpansionMode.PARALLEL).withParallelThreshold(threshold);
+			for(long seed = 0; seed < SEEDS; seed++)
+				assertArrayEquals("Seed " + seed + ", threshold " + threshold, QuestGenerator.createNewRandomQuest(EAGER, seed).getAsString(), QuestGenerator.createNewRandomQuest(parallel, seed).getAsString());
+		}
+	}
+
+	/**
+	 * A batch of quests generated by parallel tasks must give the quests of an eager batch with a single thread.
+	 */
+	@Test
+	public void parallelBatchEqualsEagerBatch()
+	{
+		List<Quest> eager = QuestGenerator.generateBatch(SEEDS, new BatchOptions(1, null, 42, EAGER));
+		List<Quest> parallel = QuestGenerator.generateBatch(SEEDS, new BatchOptions(4, null, 42, EAGER.withExpansionMode(ExpansionMode.PARALLEL).withParallelThreshold(1)));
+		for(int i = 0; i < SEEDS; i++)
+			assertArrayEquals("Quest " + i, eager.get(i).getAsString(), parallel.get(i).getAsString());
+	}
+
+	/**
+	 * A batch must give the same quests, in the same order, with one thread or with many.
+	 */
+	@Test
+	public void batchDoesNotDependOnParallelism()
+	{
+		List<Quest> single = QuestGenerator.generateBatch(SEEDS, new BatchOptions(1, null, 42, EAGER));
+		List<Quest> parallel = QuestGenerator.generateBatch(SEEDS, new BatchOptions(4, null, 42, EAGER));
+		assertEquals(SEEDS, single.size());
+		assertEquals(SEEDS, parallel.size());
+		for(int i = 0; i < SEEDS; i++)
+		{
+			assertEquals("Quest " + i, OptionalLong.of(QuestGenerator.getBatchQuestSeed(42, i)), single.get(i).getSeed());
+			assertArrayEquals("Quest " + i, single.get(i).getAsString(), parallel.get(i).getAsString());
+		}
+	}
+
+	/**
+	 * The quest at the index i of a batch must be the quest of the seed i of the batch, and the same batch seed must give the same batch.
+	 */
+	@Test
+	public void batchQuestsAreTheQuestsOfTheirSeeds()
+	{
+		List<Quest> batch = QuestGenerator.generateBatch(SEEDS, new BatchOptions(2, null, 7, EAGER));
+		List<Quest> again = QuestGenerator.generateBatch(SEEDS, new BatchOptions(3, null, 7, EAGER));
+		List<Quest> other = QuestGenerator.generateBatch(SEEDS, new BatchOptions(2, null, 8, EAGER));
+		int same = 0;
+		for(int i = 0; i < SEEDS; i++)
+		{
+			assertArrayEquals("Quest " + i, QuestGenerator.createNewRandomQuest(EAGER, QuestGenerator.getBatchQuestSeed(7, i)).getAsString(), batch.get(i).getAsString());
+			assertArrayEquals("Quest " + i, batch.get(i).getAsString(), again.get(i).getAsString());
+			if(Arrays.equals(batch.get(i).getAsString(), other.get(i).getAsString()))
+				same++;
+		}
+		assertTrue("Another batch seed gave " + same + " same quests", same < SEEDS / 2);
+		assertTrue(QuestGenerator.generateBatch(0, new BatchOptions(2, null, 7, EAGER)).isEmpty());
+	}
+
+	/**
+	 * A batch of quests of a motivation must give the quests of this motivation built from the seeds of the batch.
+	 */
+	@Test
+	public void motivationBatchUsesTheMotivation()
+	{
+		List<Quest> batch = QuestGenerator.generateBatch(SEEDS, new BatchOptions(2, Motivations.KNOWLEDGE, 7, EAGER));
+		assertEquals(SEEDS, batch.size());
+		for(int i = 0; i < SEEDS; i++)
+			assertArrayEquals("Quest " + i, QuestGenerator.createByMotivation(EAGER, Motivations.KNOWLEDGE, QuestGenerator.getBatchQuestSeed(7, i)).getAsString(), batch.get(i).getAsString());
+	}
+
+	/**
+	 * The sink of a batch must get each quest of the batch once, the same as the ones of the batch returned as a list.
+	 */
+	@Test
+	public void sinkGetsTheQuestsOfTheBatch()
+	{
+		List<Quest> batch = QuestGenerator.generateBatch(SEEDS, new BatchOptions(4, null, 42, EAGER));
+		Map<Long, Quest> received = new ConcurrentHashMap<>();
+		AtomicInteger calls = new AtomicInteger();
+		QuestGenerator.generateBatch(SEEDS, new BatchOptions(4, null, 42, EAGER), quest -> {
+			calls.incrementAndGet();
+			received.put(quest.getSeed().getAsLong(), quest);
+		});
+		assertEquals(SEEDS, calls.get());
+		assertEquals(SEEDS, received.size());
+		for(int i = 0; i < SEEDS; i++)
+		{
+			Quest quest = received.get(QuestGenerator.getBatchQuestSeed(42, i));
+			assertNotNull("Quest " + i, quest);
+			assertArrayEquals("Quest " + i, batch.get(i).getAsString(), quest.getAsString());
+		}
+	}
+
+	/**
+	 * Every with* copy of a context must start a new budget from its own limits, whatever the order of the calls, while a split context must share the budget of its context.
+	 */
+	@Test
+	public void withCopiesStartANewBudget()
+	{
+		GeneratorContext context = EAGER.withMaxNodes(10);
+		context.getBudget().consume();
+		assertEquals(0, context.withDebug(true).getBudget().getNodes());
+		assertEquals(0, context.withMaxDepth(3).withExpansionMode(ExpansionMode.ITERATIVE).getBudget().getNodes());
+		assertEquals(0, context.withExpansionMode(ExpansionMode.ITERATIVE).withMaxDepth(3).getBudget().getNodes());
+		assertEquals(10, context.withDebug(true).getBudget().getMaxNodes());
+		assertEquals(20, context.withCatalog(null).withMaxNodes(20).getBudget().getMaxNodes());
+		assertSame(context.getBudget(), context.split().getBudget());
+	}
+
+	/**
+	 * A lazy action marked as done before its subquest is generated must stay done when it is asked for its subquest, as an eager one would.
+	 */
+	@Test
+	public void lazyActionDoneBeforeExpansionStaysDone()
+	{
+		GeneratorContext lazy = EAGER.withExpansionMode(ExpansionMode.LAZY);
+		int checked = 0;
+		for(long seed = 0; seed < SEEDS; seed++)
+		{
+			List<Action> eager = new ArrayList<>(QuestGenerator.createNewRandomQuest(EAGER, seed).getActions());
+			List<Action> actions = new ArrayList<>(QuestGenerator.createNewRandomQuest(lazy, seed).getActions());
+			for(int i = 0; i < actions.size(); i++)
+			{
+				Action action = actions.get(i);
+				if(!eager.get(i).getSubquest().isPresent() || action.isExpanded())
+					continue;
+				action.setDone(true);
+				assertTrue("Seed " + seed, action.isDone());
+				assertFalse("Seed " + seed, action.getSubquest().isPresent());
+				assertTrue("Seed " + seed, action.isDone());
+				assertTrue("Seed " + seed, action.getParentQuest().getAsString().length > 0);
+				checked++;
+			}
+		}
+		assertTrue(checked > 0);
+	}
+}
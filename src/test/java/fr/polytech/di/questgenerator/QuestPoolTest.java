@@ -0,0 +1,129 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.Motivations;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a pool hands the quests it generated in the background, refills itself up to its high watermark, generates the quests inline when empty and stops its workers when closed.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestPoolTest
+{
+	private static final GeneratorContext CONTEXT = new GeneratorContext().withMaxDepth(2);
+	private static final int LOW = 2;
+	private static final int HIGH = 5;
+
+	/**
+	 * Wait for a condition to be true.
+	 *
+	 * @param message The message of the failure if the condition is still false after 30 seconds.
+	 * @param condition The condition.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	private static void waitFor(String message, BooleanSupplier condition) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while(!condition.getAsBoolean())
+		{
+			assertTrue(message, System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Wait for every motivation of a pool to have its high watermark of quests ready.
+	 *
+	 * @param pool The pool.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	private static void waitForFullPool(QuestPool pool) throws InterruptedException
+	{
+		for(Motivations motivation : Motivations.values())
+			waitFor(motivation + " not refilled", () -> pool.getAvailable(motivation) == HIGH);
+	}
+
+	/**
+	 * Once refilled, the pool must hand its ready quests without generating them.
+	 *
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	@Test
+	public void takeHitsOnceRefilled() throws InterruptedException
+	{
+		try(QuestPool pool = new QuestPool(CONTEXT, LOW, HIGH, 2))
+		{
+			waitForFullPool(pool);
+			assertNotNull(pool.take(Motivations.KNOWLEDGE));
+			assertNotNull(pool.take());
+			assertEquals(2, pool.getHits());
+			assertEquals(0, pool.getMisses());
+			assertEquals(1, pool.getHitRate(), 0);
+		}
+	}
+
+	/**
+	 * Going under the low watermark must start a refill bringing the motivation back to the high watermark.
+	 *
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	@Test
+	public void refillReachesTheHighWatermark() throws InterruptedException
+	{
+		try(QuestPool pool = new QuestPool(CONTEXT, LOW, HIGH, 2))
+		{
+			waitForFullPool(pool);
+			long refills = pool.getRefills();
+			assertEquals(Motivations.values().length, refills);
+			for(int i = 0; i < HIGH - LOW + 1; i++)
+				pool.take(Motivations.WEALTH);
+			waitFor("No refill", () -> pool.getRefills() == refills + 1);
+			assertEquals(HIGH, pool.getAvailable(Motivations.WEALTH));
+			assertTrue(pool.getMaxRefillLag(TimeUnit.NANOSECONDS) > 0);
+		}
+	}
+
+	/**
+	 * An empty pool must generate the quests asked in the calling thread and count them as misses.
+	 *
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	@Test
+	public void emptyPoolGeneratesInline() throws InterruptedException
+	{
+		QuestPool pool = new QuestPool(CONTEXT, LOW, HIGH, 1);
+		pool.close();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+		int available = pool.getAvailable(Motivations.PROTECTION);
+		for(int i = 0; i <= available; i++)
+			assertNotNull(pool.take(Motivations.PROTECTION));
+		assertEquals(available, pool.getHits());
+		assertEquals(1, pool.getMisses());
+		assertEquals(0, pool.getAvailable(Motivations.PROTECTION));
+	}
+
+	/**
+	 * A closed pool must stop its workers and never refill again.
+	 *
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	@Test
+	public void closeStopsTheWorkers() throws InterruptedException
+	{
+		QuestPool pool = new QuestPool(CONTEXT, LOW, HIGH, 2);
+		waitForFullPool(pool);
+		pool.close();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+		long refills = pool.getRefills();
+		for(int i = 0; i < HIGH + 1; i++)
+			assertNotNull(pool.take(Motivations.REPUTATION));
+		assertEquals(0, pool.getAvailable(Motivations.REPUTATION));
+		assertEquals(refills, pool.getRefills());
+		assertEquals(1, pool.getMisses());
+	}
+}
@@ -0,0 +1,301 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.QuestSessionManager.ActionSnapshot;
+import fr.polytech.di.questgenerator.QuestSessionManager.LatencyHistogram;
+import fr.polytech.di.questgenerator.interfaces.SessionListener;
+import fr.polytech.di.questgenerator.objects.Action;
+import fr.polytech.di.questgenerator.objects.GameEvent;
+import fr.polytech.di.questgenerator.objects.Quest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the sessions of the players get their own events, notify the listeners from the threads of their shards and can be stopped, and that the latency statistics are right.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class QuestSessionManagerTest
+{
+	private static final GeneratorContext CONTEXT = new GeneratorContext().withMaxDepth(4);
+
+	/**
+	 * Used to get the events completing the doable leaves of players.
+	 *
+	 * @param manager The manager.
+	 * @param players The ids of the players.
+	 * @return The events of each player having at least one.
+	 */
+	private static Map<Long, List<GameEvent>> nextEvents(QuestSessionManager manager, long... players)
+	{
+		Map<Long, List<GameEvent>> events = new HashMap<>();
+		for(long player : players)
+		{
+			List<GameEvent> playerEvents = new ArrayList<>();
+			for(ActionSnapshot leaf : manager.getDoableLeaves(player).join())
+				leaf.getEvent().ifPresent(playerEvents::add);
+			if(!playerEvents.isEmpty())
+				events.put(player, playerEvents);
+		}
+		return events;
+	}
+
+	/**
+	 * Used to get a player whose session is in a shard.
+	 *
+	 * @param manager The manager.
+	 * @param shard The index of the shard.
+	 * @return The id of the player.
+	 */
+	private static long playerOfShard(QuestSessionManager manager, int shard)
+	{
+		long player = 0;
+		while(manager.getShardIndex(player) != shard)
+			player++;
+		return player;
+	}
+
+	/**
+	 * The events of a player must only change the quests of this player, even when another one has the same quest.
+	 */
+	@Test
+	public void eventsGoToTheirPlayerOnly()
+	{
+		try(QuestSessionManager manager = new QuestSessionManager(2))
+		{
+			long first = manager.addQuest(1, QuestGenerator.createNewRandomQuest(CONTEXT, 7)).join();
+			manager.addQuest(2, QuestGenerator.createNewRandomQuest(CONTEXT, 7)).join();
+			List<String> before = new ArrayList<>();
+			for(ActionSnapshot leaf : manager.getDoableLeaves(2).join())
+				before.add(leaf.getAsString());
+			List<ActionSnapshot> done = manager.apply(1, nextEvents(manager, 1).get(1L)).join();
+			assertFalse(done.isEmpty());
+			for(ActionSnapshot action : done)
+			{
+				assertEquals(first, action.getQuest());
+				assertTrue(action.isDone());
+			}
+			List<String> after = new ArrayList<>();
+			for(ActionSnapshot leaf : manager.getDoableLeaves(2).join())
+				after.add(leaf.getAsString());
+			assertEquals(before, after);
+			assertTrue(manager.apply(3, nextEvents(manager, 2).get(2L)).join().isEmpty());
+		}
+	}
+
+	/**
+	 * A session listener must be told of every action and quest done by every player, from the thread of the shard of the player.
+	 */
+	@Test
+	public void listenersGetTheActionsOfAllPlayers()
+	{
+		long[] players = {0, 1, 2, 3, 4, 5, 6, 7};
+		try(QuestSessionManager manager = new QuestSessionManager(3))
+		{
+			Map<Long, AtomicLong> actions = new ConcurrentHashMap<>();
+			Set<Quest> quests = ConcurrentHashMap.newKeySet();
+			AtomicLong roots = new AtomicLong();
+			Set<String> wrongThreads = ConcurrentHashMap.newKeySet();
+			manager.addSessionListener(new SessionListener()
+			{
+				@Override
+				public void actionDone(long player, Action action)
+				{
+					actions.computeIfAbsent(player, p -> new AtomicLong()).incrementAndGet();
+					if(!Thread.currentThread().getName().equals("Quest session shard " + manager.getShardIndex(player)))
+						wrongThreads.add(Thread.currentThread().getName());
+				}
+
+				@Override
+				public void questDone(long player, Quest quest)
+				{
+					if(quest.getParent() == null)
+					{
+						quests.add(quest);
+						roots.incrementAndGet();
+					}
+				}
+			});
+			for(long player : players)
+				manager.addQuest(player, QuestGenerator.createNewRandomQuest(CONTEXT, player)).join();
+			Map<Long, Long> done = new HashMap<>();
+			for(Map<Long, List<GameEvent>> events = nextEvents(manager, players); !events.isEmpty(); events = nextEvents(manager, players))
+				for(Map.Entry<Long, List<ActionSnapshot>> entry : manager.apply(events).join().entrySet())
+					done.merge(entry.getKey(), (long) entry.getValue().size(), Long::sum);
+			for(long player : players)
+			{
+				assertEquals("Player " + player, done.get(player).longValue(), actions.get(player).get());
+				assertTrue(manager.getQuests(player).join().isEmpty());
+			}
+			assertEquals(players.length, quests.size());
+			assertEquals(players.length, roots.get());
+			assertTrue(wrongThreads.toString(), wrongThreads.isEmpty());
+		}
+	}
+
+	/**
+	 * A quest must not be part of two sessions at once.
+	 */
+	@Test
+	public void questCanOnlyBePartOfOneSession()
+	{
+		try(QuestSessionManager manager = new QuestSessionManager(2))
+		{
+			Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, 3);
+			manager.addQuest(playerOfShard(manager, 0), quest).join();
+			try
+			{
+				manager.addQuest(playerOfShard(manager, 1), quest);
+				fail("The quest has been added twice");
+			}
+			catch(IllegalArgumentException expected)
+			{
+			}
+			assertTrue(manager.removeQuest(playerOfShard(manager, 0), quest).join());
+			manager.addQuest(playerOfShard(manager, 1), quest).join();
+		}
+	}
+
+	/**
+	 * Once closed, a manager must run the tasks already submitted and reject the new ones.
+	 */
+	@Test
+	public void closedManagerRejectsNewTasks()
+	{
+		QuestSessionManager manager = new QuestSessionManager(2);
+		Quest quest = QuestGenerator.createNewRandomQuest(CONTEXT, 5);
+		CompletableFuture<Long> added = manager.addQuest(1, quest);
+		CompletableFuture<List<ActionSnapshot>> leaves = manager.getDoableLeaves(1);
+		manager.close();
+		assertTrue(added.join() > 0);
+		assertEquals(1, leaves.join().size());
+		try
+		{
+			manager.addQuest(2, QuestGenerator.createNewRandomQuest(CONTEXT, 6));
+			fail("A quest has been added after close");
+		}
+		catch(RejectedExecutionException expected)
+		{
+		}
+		try
+		{
+			manager.getQuests(1);
+			fail("A task has been submitted after close");
+		}
+		catch(RejectedExecutionException expected)
+		{
+		}
+	}
+
+	/**
+	 * Two players of different shards must get their events at the same time: the listener of each one waits for the other one to be called.
+	 */
+	@Test
+	public void shardsRunConcurrently()
+	{
+		try(QuestSessionManager manager = new QuestSessionManager(2))
+		{
+			long first = playerOfShard(manager, 0);
+			long second = playerOfShard(manager, 1);
+			assertNotEquals(manager.getShardIndex(first), manager.getShardIndex(second));
+			manager.addQuest(first, QuestGenerator.createNewRandomQuest(CONTEXT, 11)).join();
+			manager.addQuest(second, QuestGenerator.createNewRandomQuest(CONTEXT, 12)).join();
+			CountDownLatch started = new CountDownLatch(2);
+			AtomicBoolean timedOut = new AtomicBoolean();
+			manager.addSessionListener(new SessionListener()
+			{
+				@Override
+				public void actionDone(long player, Action action)
+				{
+					started.countDown();
+					try
+					{
+						if(!started.await(10, TimeUnit.SECONDS))
+							timedOut.set(true);
+					}
+					catch(InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						timedOut.set(true);
+					}
+				}
+
+				@Override
+				public void questDone(long player, Quest quest)
+				{
+				}
+			});
+			Map<Long, List<GameEvent>> events = nextEvents(manager, first, second);
+			CompletableFuture<List<ActionSnapshot>> firstDone = manager.apply(first, events.get(first));
+			CompletableFuture<List<ActionSnapshot>> secondDone = manager.apply(second, events.get(second));
+			assertFalse(firstDone.join().isEmpty());
+			assertFalse(secondDone.join().isEmpty());
+			assertFalse(timedOut.get());
+		}
+	}
+
+	/**
+	 * The bucket of a value must hold it, and its upper bound must be at most 12.5% over it.
+	 */
+	@Test
+	public void histogramBucketsHoldTheirValues()
+	{
+		for(long value = 0; value < 1 << 16; value++)
+			checkBucket(value);
+		for(int shift = 16; shift < 62; shift++)
+			for(long value : new long[]{(1L << shift) - 1, 1L << shift, (1L << shift) + 1, 3L << (shift - 1)})
+				checkBucket(value);
+	}
+
+	/**
+	 * Check the bucket of a value.
+	 *
+	 * @param value The value.
+	 */
+	private static void checkBucket(long value)
+	{
+		int bucket = LatencyHistogram.getBucket(value);
+		long upper = LatencyHistogram.getUpperBound(bucket);
+		assertTrue("Value " + value, upper >= value);
+		assertTrue("Value " + value, upper - value <= value / 8);
+		assertEquals("Value " + value, bucket, LatencyHistogram.getBucket(upper));
+		assertEquals("Value " + value, bucket + 1, LatencyHistogram.getBucket(upper + 1));
+	}
+
+	/**
+	 * The 99th percentile must be the upper bound of the bucket of the value of rank ceil(0.99 * total).
+	 */
+	@Test
+	public void p99IsTheBucketOfThe99thPercentValue()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, LatencyHistogram.getQuantile(histogram.snapshot(), 0.99));
+		for(int i = 0; i < 99; i++)
+			histogram.record(1000);
+		histogram.record(1000000);
+		long fast = LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(1000));
+		long slow = LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(1000000));
+		assertEquals(1023, fast);
+		assertEquals(fast, LatencyHistogram.getQuantile(histogram.snapshot(), 0.5));
+		assertEquals(fast, LatencyHistogram.getQuantile(histogram.snapshot(), 0.99));
+		assertEquals(slow, LatencyHistogram.getQuantile(histogram.snapshot(), 1));
+		histogram.record(1000000);
+		assertEquals(slow, LatencyHistogram.getQuantile(histogram.snapshot(), 0.99));
+		assertEquals(fast, LatencyHistogram.getQuantile(histogram.snapshot(), 0));
+	}
+}
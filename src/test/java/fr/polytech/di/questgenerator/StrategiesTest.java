@@ -0,0 +1,113 @@
+package fr.polytech.di.questgenerator;
+
+import fr.polytech.di.questgenerator.enums.Motivations;
+import fr.polytech.di.questgenerator.enums.Strategies;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the draws of motivations and strategies through their alias tables follow the weights read from the properties, as a scan over the weights would.
+ * <p>
+ * Created by COUCHOUD Thomas & COLEAU Victor.
+ */
+public class StrategiesTest
+{
+	private static final int DRAWS = 200000;
+
+	/**
+	 * Check that the frequencies of draws are close to their probabilities, within 5 standard deviations.
+	 *
+	 * @param counts The number of draws of each strategy, by ordinal.
+	 * @param probabilities The probability of each strategy, by ordinal.
+	 */
+	private static void checkFrequencies(int[] counts, double[] probabilities)
+	{
+		for(Strategies strategy : Strategies.values())
+		{
+			double probability = probabilities[strategy.ordinal()];
+			double frequency = (double) counts[strategy.ordinal()] / DRAWS;
+			if(probability == 0)
+				assertEquals(strategy.toString(), 0, counts[strategy.ordinal()]);
+			else
+				assertEquals(strategy.toString(), probability, frequency, 5 * Math.sqrt(probability * (1 - probability) / DRAWS));
+		}
+	}
+
+	/**
+	 * A motivation must be drawn with its probability, normalized over all the motivations.
+	 */
+	@Test
+	public void motivationDrawsFollowTheProbabilities()
+	{
+		double total = 0;
+		for(Motivations motivation : Motivations.values())
+			total += motivation.getProbability();
+		int[] counts = new int[Motivations.values().length];
+		SplittableRandom random = new SplittableRandom(1);
+		for(int i = 0; i < DRAWS; i++)
+			counts[Motivations.getRandom(random).ordinal()]++;
+		for(Motivations motivation : Motivations.values())
+		{
+			double probability = motivation.getProbability() / total;
+			assertEquals(motivation.toString(), probability, (double) counts[motivation.ordinal()] / DRAWS, 5 * Math.sqrt(probability * (1 - probability) / DRAWS));
+		}
+	}
+
+	/**
+	 * A strategy must be drawn with the probability of its motivation times its weight among the strategies of this motivation.
+	 */
+	@Test
+	public void strategyDrawsFollowTheWeights()
+	{
+		double total = 0;
+		for(Motivations motivation : Motivations.values())
+			total += motivation.getProbability();
+		double[] probabilities = new double[Strategies.values().length];
+		for(Strategies strategy : Strategies.values())
+		{
+			double weights = 0;
+			for(Strategies other : Strategies.values())
+				if(other.getMotivation() == strategy.getMotivation())
+					weights += other.getWeight();
+			probabilities[strategy.ordinal()] = strategy.getMotivation().getProbability() / total * strategy.getWeight() / weights;
+		}
+		int[] counts = new int[Strategies.values().length];
+		SplittableRandom random = new SplittableRandom(2);
+		for(int i = 0; i < DRAWS; i++)
+			counts[Strategies.getRandom(random).ordinal()]++;
+		checkFrequencies(counts, probabilities);
+	}
+
+	/**
+	 * A subquest strategy must be drawn with its weight among the strategies allowed for subquests, and the other ones must never be drawn.
+	 */
+	@Test
+	public void subquestDrawsFollowTheWeights()
+	{
+		double weights = 0;
+		for(Strategies strategy : Strategies.values())
+			if(strategy.isSubquestAllowed())
+				weights += strategy.getWeight();
+		double[] probabilities = new double[Strategies.values().length];
+		for(Strategies strategy : Strategies.values())
+			probabilities[strategy.ordinal()] = strategy.isSubquestAllowed() ? strategy.getWeight() / weights : 0;
+		int[] counts = new int[Strategies.values().length];
+		SplittableRandom random = new SplittableRandom(3);
+		for(int i = 0; i < DRAWS; i++)
+			counts[Strategies.getRandomSubquest(random).ordinal()]++;
+		checkFrequencies(counts, probabilities);
+	}
+
+	/**
+	 * The strategies drawn for a motivation must be strategies of this motivation.
+	 */
+	@Test
+	public void motivationDrawsGiveStrategiesOfTheMotivation()
+	{
+		SplittableRandom random = new SplittableRandom(4);
+		for(Motivations motivation : Motivations.values())
+			for(int i = 0; i < 1000; i++)
+				assertEquals(motivation, Strategies.getByMotivation(random, motivation).getMotivation());
+	}
+}